@@ -0,0 +1,35 @@
+#!/bin/sh
+# Builds the app into out/appcds, records an AppCDS archive from a training run
+# that exits after the first frame, then compares startup with and without it.
+#
+#   JAVAFX_HOME=/path/to/javafx-sdk scripts/appcds.sh
+#
+# Needs JDK 13+ (-XX:ArchiveClassesAtExit). The archive is only valid for the
+# JDK, JavaFX SDK and classes it was recorded with; rerun after every build.
+set -e
+
+: "${JAVAFX_HOME:?Set JAVAFX_HOME to the JavaFX SDK directory}"
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+OUT="$ROOT/out/appcds"
+CLASSES="$OUT/classes"
+JAR="$OUT/explorer.jar"
+ARCHIVE="$OUT/explorer.jsa"
+FX="--module-path $JAVAFX_HOME/lib --add-modules javafx.controls"
+
+rm -rf "$OUT"
+mkdir -p "$CLASSES"
+javac -encoding UTF-8 $FX -d "$CLASSES" "$ROOT"/src/*.java
+cp "$ROOT"/src/*.css "$CLASSES"/
+# CDS only archives classes loaded from JAR files, not from class directories.
+jar cf "$JAR" -C "$CLASSES" .
+
+echo "Recording $ARCHIVE"
+java $FX -XX:ArchiveClassesAtExit="$ARCHIVE" -Dexplorer.startup.exit=true -cp "$JAR" Main
+
+echo "Without archive:"
+java $FX -Xshare:auto -Dexplorer.startup.timing=true -Dexplorer.startup.exit=true -cp "$JAR" Main
+echo "With archive:"
+java $FX -XX:SharedArchiveFile="$ARCHIVE" -Dexplorer.startup.timing=true -Dexplorer.startup.exit=true -cp "$JAR" Main
+
+echo
+echo "Run with: java $FX -XX:SharedArchiveFile=$ARCHIVE -cp $JAR Main"
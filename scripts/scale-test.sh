@@ -0,0 +1,22 @@
+#!/bin/sh
+# Builds the non-UI classes with the scale harness from test/ into out/scale and
+# runs it: a synthetic tree is generated in a temp directory and listing, sorting,
+# paging, external sorting and folder sizing are timed and checked against it.
+# Exits non-zero if a result is wrong or a time or heap budget is exceeded.
+#
+#   scripts/scale-test.sh
+#   scripts/scale-test.sh -Dexplorer.scale.wide=1000000 -Dexplorer.scale.maxFileSize=0
+#   scripts/scale-test.sh -Dexplorer.size.followLinks=true -Dexplorer.scale.symlinks=0.3
+#
+# Arguments are passed to the JVM; see test/ScaleHarness.java for the tree shape
+# and budget properties. No JavaFX is needed.
+set -e
+
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+OUT="$ROOT/out/scale"
+
+rm -rf "$OUT"
+mkdir -p "$OUT"
+# -sourcepath pulls in only the src classes the harness uses, none of them JavaFX.
+javac -encoding UTF-8 -sourcepath "$ROOT/src" -d "$OUT" "$ROOT"/test/*.java
+java -Xmx1g "$@" -cp "$OUT" ScaleHarness
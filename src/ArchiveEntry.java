@@ -0,0 +1,107 @@
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ArchiveEntry {
+    private final String name;
+    private final String path;
+    private final boolean directory;
+    private final long dataOffset;
+    private final Map<String, ArchiveEntry> children;
+    private long size;
+    private long fileCount;
+
+    private ArchiveEntry(String name, String path, boolean directory, long size, long dataOffset) {
+        this.name = name;
+        this.path = path;
+        this.directory = directory;
+        this.size = size;
+        this.dataOffset = dataOffset;
+        this.children = directory ? new LinkedHashMap<>() : null;
+    }
+
+    public static ArchiveEntry root(String name) {
+        return new ArchiveEntry(name, "", true, 0, -1);
+    }
+
+    /**
+     * Adds an entry below this directory, creating any missing parent directories
+     * (tar files often omit them) and adding its size to every ancestor.
+     */
+    public void add(String entryPath, boolean isDirectory, long entrySize, long entryOffset) {
+        String normalized = entryPath.replace('\\', '/');
+        while (normalized.startsWith("/") || normalized.startsWith("./")) {
+            normalized = normalized.substring(normalized.startsWith("/") ? 1 : 2);
+        }
+        while (normalized.endsWith("/")) {
+            normalized = normalized.substring(0, normalized.length() - 1);
+        }
+        if (normalized.isEmpty()) return;
+
+        String[] segments = normalized.split("/");
+        List<ArchiveEntry> ancestors = new ArrayList<>();
+        ArchiveEntry parent = this;
+        StringBuilder current = new StringBuilder(path);
+        for (int i = 0; i < segments.length; i++) {
+            if (current.length() > 0) current.append('/');
+            current.append(segments[i]);
+            boolean last = i == segments.length - 1;
+            ancestors.add(parent);
+
+            ArchiveEntry child = parent.children.get(segments[i]);
+            if (last) {
+                if (child != null) return;
+                child = isDirectory
+                        ? new ArchiveEntry(segments[i], current.toString(), true, 0, -1)
+                        : new ArchiveEntry(segments[i], current.toString(), false, entrySize, entryOffset);
+                parent.children.put(segments[i], child);
+            } else if (child == null || !child.directory) {
+                child = new ArchiveEntry(segments[i], current.toString(), true, 0, -1);
+                parent.children.put(segments[i], child);
+            }
+            parent = child;
+        }
+
+        if (!isDirectory) {
+            for (ArchiveEntry ancestor : ancestors) {
+                ancestor.size += entrySize;
+                ancestor.fileCount++;
+            }
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public boolean isDirectory() {
+        return directory;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public long getFileCount() {
+        return fileCount;
+    }
+
+    public long getDataOffset() {
+        return dataOffset;
+    }
+
+    public Collection<ArchiveEntry> getChildren() {
+        return children.values();
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,235 @@
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * Read-only index of a ZIP/JAR or TAR archive. ZIP archives are opened through the
+ * zip FileSystem provider, which only reads the central directory. TAR archives are
+ * indexed by reading the 512-byte headers and skipping over the entry data.
+ * Nothing is extracted until extract() is called for a single entry.
+ */
+public class ArchiveIndex implements Closeable {
+    private static final int TAR_BLOCK = 512;
+
+    private final String name;
+    private final Path source;
+    private final long baseOffset;
+    private final FileSystem zipFileSystem;
+    private final ArchiveEntry root;
+
+    private ArchiveIndex(String name, Path source, long baseOffset, FileSystem zipFileSystem, ArchiveEntry root) {
+        this.name = name;
+        this.source = source;
+        this.baseOffset = baseOffset;
+        this.zipFileSystem = zipFileSystem;
+        this.root = root;
+    }
+
+    public static boolean isArchive(String fileName) {
+        return isZip(fileName) || isTar(fileName);
+    }
+
+    private static boolean isZip(String fileName) {
+        String lower = fileName.toLowerCase();
+        return lower.endsWith(".zip") || lower.endsWith(".jar") || lower.endsWith(".war") || lower.endsWith(".ear");
+    }
+
+    private static boolean isTar(String fileName) {
+        return fileName.toLowerCase().endsWith(".tar");
+    }
+
+    public static ArchiveIndex open(Path archive) throws IOException {
+        String fileName = archive.getFileName().toString();
+        if (isZip(fileName)) {
+            return openZip(fileName, archive);
+        }
+        if (isTar(fileName)) {
+            return new ArchiveIndex(fileName, archive, 0, null, indexTar(fileName, archive, 0));
+        }
+        throw new IOException("Unsupported archive type: " + fileName);
+    }
+
+    private static ArchiveIndex openZip(String fileName, Path archive) throws IOException {
+        FileSystem fileSystem = FileSystems.newFileSystem(archive, (ClassLoader) null);
+        try {
+            ArchiveEntry root = ArchiveEntry.root(fileName);
+            Path top = fileSystem.getPath("/");
+            Files.walkFileTree(top, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                    if (!dir.equals(top)) {
+                        root.add(top.relativize(dir).toString(), true, 0, -1);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    root.add(top.relativize(file).toString(), false, attrs.size(), -1);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+            return new ArchiveIndex(fileName, archive, 0, fileSystem, root);
+        } catch (IOException | RuntimeException e) {
+            fileSystem.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens an archive stored inside this one. A ZIP inside a ZIP is opened through the
+     * provider directly; a TAR inside a TAR is indexed in place at its data offset. A ZIP
+     * stored in a TAR needs random access, so only that entry is extracted first.
+     */
+    public ArchiveIndex openNested(ArchiveEntry entry) throws IOException {
+        if (zipFileSystem != null) {
+            Path inner = zipFileSystem.getPath("/" + entry.getPath());
+            if (isZip(entry.getName())) {
+                return openZip(entry.getName(), inner);
+            }
+            return new ArchiveIndex(entry.getName(), inner, 0, null, indexTar(entry.getName(), inner, 0));
+        }
+        if (isTar(entry.getName())) {
+            long offset = baseOffset + entry.getDataOffset();
+            return new ArchiveIndex(entry.getName(), source, offset, null, indexTar(entry.getName(), source, offset));
+        }
+        return open(extract(entry));
+    }
+
+    public Path extract(ArchiveEntry entry) throws IOException {
+        Path directory = Files.createTempDirectory("archive-entry");
+        Path target = directory.resolve(entry.getName());
+        directory.toFile().deleteOnExit();
+        target.toFile().deleteOnExit();
+
+        if (zipFileSystem != null) {
+            Files.copy(zipFileSystem.getPath("/" + entry.getPath()), target);
+            return target;
+        }
+
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(source));
+             OutputStream out = Files.newOutputStream(target)) {
+            in.skipNBytes(baseOffset + entry.getDataOffset());
+            byte[] buffer = new byte[64 * 1024];
+            long remaining = entry.getSize();
+            while (remaining > 0) {
+                int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                if (read < 0) throw new IOException("Unexpected end of archive: " + name);
+                out.write(buffer, 0, read);
+                remaining -= read;
+            }
+        }
+        return target;
+    }
+
+    private static ArchiveEntry indexTar(String fileName, Path archive, long offset) throws IOException {
+        ArchiveEntry root = ArchiveEntry.root(fileName);
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(archive), TAR_BLOCK * 16)) {
+            in.skipNBytes(offset);
+            byte[] header = new byte[TAR_BLOCK];
+            long position = 0;
+            String longName = null;
+
+            while (in.readNBytes(header, 0, TAR_BLOCK) == TAR_BLOCK && !isZeroBlock(header)) {
+                position += TAR_BLOCK;
+                String entryName = readString(header, 0, 100);
+                long size = readSize(header);
+                char type = (char) header[156];
+                // Only POSIX ustar headers ("ustar\0") carry a name prefix; old GNU headers
+                // ("ustar  ") store other fields at that offset.
+                if (readString(header, 257, 6).equals("ustar") && header[262] == 0) {
+                    String prefix = readString(header, 345, 155);
+                    if (!prefix.isEmpty()) entryName = prefix + "/" + entryName;
+                }
+                long padded = (size + TAR_BLOCK - 1) / TAR_BLOCK * TAR_BLOCK;
+
+                if (type == 'L' || type == 'x' || type == 'g') {
+                    byte[] data = in.readNBytes((int) size);
+                    in.skipNBytes(padded - size);
+                    position += padded;
+                    if (type == 'L') {
+                        longName = readString(data, 0, data.length);
+                    } else if (type == 'x') {
+                        String paxPath = readPaxPath(data);
+                        if (paxPath != null) longName = paxPath;
+                    }
+                    continue;
+                }
+
+                if (longName != null) {
+                    entryName = longName;
+                    longName = null;
+                }
+                boolean directory = type == '5' || entryName.endsWith("/");
+                boolean regular = type == '0' || type == '\0' || type == '7';
+                root.add(entryName, directory, regular ? size : 0, position);
+
+                in.skipNBytes(padded);
+                position += padded;
+            }
+        }
+        return root;
+    }
+
+    private static boolean isZeroBlock(byte[] block) {
+        for (byte b : block) {
+            if (b != 0) return false;
+        }
+        return true;
+    }
+
+    private static String readString(byte[] data, int offset, int length) {
+        int end = offset;
+        while (end < offset + length && end < data.length && data[end] != 0) end++;
+        return new String(data, offset, end - offset, StandardCharsets.UTF_8).trim();
+    }
+
+    private static long readSize(byte[] header) {
+        // Sizes of 8 GiB and more use the GNU base-256 encoding, flagged by the high bit.
+        if ((header[124] & 0x80) != 0) {
+            long size = 0;
+            for (int i = 125; i < 136; i++) {
+                size = (size << 8) | (header[i] & 0xff);
+            }
+            return size;
+        }
+        String octal = readString(header, 124, 12);
+        return octal.isEmpty() ? 0 : Long.parseLong(octal, 8);
+    }
+
+    private static String readPaxPath(byte[] data) {
+        String records = new String(data, StandardCharsets.UTF_8);
+        for (String record : records.split("\n")) {
+            int space = record.indexOf(' ');
+            if (space > 0 && record.startsWith("path=", space + 1)) {
+                return record.substring(space + 6);
+            }
+        }
+        return null;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public ArchiveEntry getRoot() {
+        return root;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (zipFileSystem != null) {
+            zipFileSystem.close();
+        }
+    }
+}
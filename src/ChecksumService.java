@@ -0,0 +1,421 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileStore;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * Computes checksum manifests for folders and re-verifies them later. Files are
+ * read through FileChannels into per-thread direct buffers on a pool per file
+ * store, so the thread count can be tuned per device:
+ * -Dexplorer.checksum.threads sets the default and
+ * -Dexplorer.checksum.threads.&lt;store name&gt; overrides it for one store.
+ *
+ * A re-run only hashes files whose size or modification time changed since the
+ * manifest was written, unless a full verification is requested, which also
+ * reports unchanged files whose content no longer matches.
+ */
+public class ChecksumService {
+    public enum Algorithm {
+        SHA256("SHA-256"), CRC32C("CRC32C");
+
+        private final String label;
+
+        Algorithm(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final int DEFAULT_THREADS = 4;
+    private static final long PROGRESS_INTERVAL_NANOS = 200_000_000;
+    private static final int MAX_PROBLEMS = 20;
+    private static final ThreadLocal<ByteBuffer> BUFFERS = ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(BUFFER_SIZE));
+
+    public static class Progress {
+        private final long filesDone;
+        private final long filesFound;
+        private final long bytesHashed;
+        private final long elapsedNanos;
+
+        Progress(long filesDone, long filesFound, long bytesHashed, long elapsedNanos) {
+            this.filesDone = filesDone;
+            this.filesFound = filesFound;
+            this.bytesHashed = bytesHashed;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public long getFilesDone() {
+            return filesDone;
+        }
+
+        public long getFilesFound() {
+            return filesFound;
+        }
+
+        public double getMegabytesPerSecond() {
+            return megabytesPerSecond(bytesHashed, elapsedNanos);
+        }
+    }
+
+    public static class Report {
+        private final long hashed;
+        private final long skipped;
+        private final long added;
+        private final long modified;
+        private final long corrupted;
+        private final long missing;
+        private final long failed;
+        private final long bytesHashed;
+        private final long elapsedNanos;
+        private final Path manifest;
+        private final List<String> problems;
+
+        Report(Job job, long missing, Path manifest) {
+            this.hashed = job.hashed.get();
+            this.skipped = job.skipped.get();
+            this.added = job.added.get();
+            this.modified = job.modified.get();
+            this.corrupted = job.corrupted.get();
+            this.missing = missing;
+            this.failed = job.failed.get();
+            this.bytesHashed = job.bytesHashed.get();
+            this.elapsedNanos = System.nanoTime() - job.started;
+            this.manifest = manifest;
+            this.problems = new ArrayList<>(job.problems);
+        }
+
+        public long getHashed() {
+            return hashed;
+        }
+
+        public long getSkipped() {
+            return skipped;
+        }
+
+        public long getAdded() {
+            return added;
+        }
+
+        public long getModified() {
+            return modified;
+        }
+
+        /** Files whose size and modification time are unchanged but whose content is not (full runs only). */
+        public long getCorrupted() {
+            return corrupted;
+        }
+
+        public long getMissing() {
+            return missing;
+        }
+
+        public long getFailed() {
+            return failed;
+        }
+
+        public long getBytesHashed() {
+            return bytesHashed;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedNanos / 1_000_000;
+        }
+
+        public double getMegabytesPerSecond() {
+            return megabytesPerSecond(bytesHashed, elapsedNanos);
+        }
+
+        public Path getManifest() {
+            return manifest;
+        }
+
+        public List<String> getProblems() {
+            return problems;
+        }
+    }
+
+    private static class ManifestEntry {
+        final String checksum;
+        final long size;
+        final long modified;
+
+        ManifestEntry(String checksum, long size, long modified) {
+            this.checksum = checksum;
+            this.size = size;
+            this.modified = modified;
+        }
+    }
+
+    private static class Job {
+        final long started = System.nanoTime();
+        final AtomicLong found = new AtomicLong();
+        final AtomicLong done = new AtomicLong();
+        final AtomicLong hashed = new AtomicLong();
+        final AtomicLong skipped = new AtomicLong();
+        final AtomicLong added = new AtomicLong();
+        final AtomicLong modified = new AtomicLong();
+        final AtomicLong corrupted = new AtomicLong();
+        final AtomicLong failed = new AtomicLong();
+        final AtomicLong bytesHashed = new AtomicLong();
+        final AtomicLong lastReport = new AtomicLong(started);
+        final List<String> problems = Collections.synchronizedList(new ArrayList<>());
+        final Consumer<Progress> onProgress;
+
+        Job(Consumer<Progress> onProgress) {
+            this.onProgress = onProgress;
+        }
+
+        void problem(String message) {
+            if (problems.size() < MAX_PROBLEMS) problems.add(message);
+        }
+
+        void fileDone() {
+            done.incrementAndGet();
+            report(false);
+        }
+
+        void report(boolean force) {
+            long now = System.nanoTime();
+            long last = lastReport.get();
+            if (force || (now - last >= PROGRESS_INTERVAL_NANOS && lastReport.compareAndSet(last, now))) {
+                onProgress.accept(new Progress(done.get(), found.get(), bytesHashed.get(), now - started));
+            }
+        }
+    }
+
+    private final Path manifestDir;
+    private final Map<String, ExecutorService> devicePools = new ConcurrentHashMap<>();
+
+    public ChecksumService(Path manifestDir) {
+        this.manifestDir = manifestDir;
+    }
+
+    public CompletableFuture<Report> verify(File folder, Algorithm algorithm, boolean full, Consumer<Progress> onProgress) {
+        CompletableFuture<Report> result = new CompletableFuture<>();
+        Thread thread = new Thread(() -> {
+            try {
+                result.complete(run(folder.toPath(), algorithm, full, new Job(onProgress), result));
+            } catch (IOException | RuntimeException e) {
+                result.completeExceptionally(e);
+            } catch (InterruptedException e) {
+                result.cancel(false);
+            }
+        }, "checksum-job");
+        thread.setDaemon(true);
+        thread.start();
+        return result;
+    }
+
+    public Path manifestFor(File folder, Algorithm algorithm) {
+        Path root = folder.toPath().toAbsolutePath().normalize();
+        String name = root.getFileName() == null ? "root" : root.getFileName().toString().replaceAll("[^A-Za-z0-9._-]", "_");
+        return manifestDir.resolve(name + "-" + Integer.toHexString(root.toString().hashCode())
+                + "." + algorithm.name().toLowerCase() + ".tsv");
+    }
+
+    public void shutdown() {
+        devicePools.values().forEach(ExecutorService::shutdownNow);
+    }
+
+    private Report run(Path root, Algorithm algorithm, boolean full, Job job, CompletableFuture<Report> result)
+            throws IOException, InterruptedException {
+        Path manifest = manifestFor(root.toFile(), algorithm);
+        Map<String, ManifestEntry> previous = readManifest(manifest);
+        Map<String, ManifestEntry> current = new ConcurrentHashMap<>();
+
+        FileStore store = Files.getFileStore(root);
+        int threads = threadsFor(store);
+        ExecutorService pool = devicePools.computeIfAbsent(store.name(), name -> Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "checksum-" + name);
+            thread.setDaemon(true);
+            return thread;
+        }));
+        // Keeps a few files queued per thread without listing the whole tree into the queue.
+        int slots = threads * 4;
+        Semaphore inFlight = new Semaphore(slots);
+
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) throws IOException {
+                if (result.isCancelled()) return FileVisitResult.TERMINATE;
+                if (!attributes.isRegularFile()) return FileVisitResult.CONTINUE;
+
+                String path = root.relativize(file).toString().replace(File.separatorChar, '/');
+                long size = attributes.size();
+                long modified = attributes.lastModifiedTime().toMillis();
+                ManifestEntry known = previous.get(path);
+                boolean unchanged = known != null && known.size == size && known.modified == modified;
+                job.found.incrementAndGet();
+
+                if (unchanged && !full) {
+                    current.put(path, known);
+                    job.skipped.incrementAndGet();
+                    job.fileDone();
+                    return FileVisitResult.CONTINUE;
+                }
+
+                try {
+                    inFlight.acquire();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return FileVisitResult.TERMINATE;
+                }
+                pool.submit(() -> {
+                    try {
+                        if (result.isCancelled()) return;
+                        String checksum = checksum(file, algorithm);
+                        job.hashed.incrementAndGet();
+                        job.bytesHashed.addAndGet(size);
+                        if (known == null) {
+                            job.added.incrementAndGet();
+                        } else if (!unchanged) {
+                            job.modified.incrementAndGet();
+                        } else if (!known.checksum.equals(checksum)) {
+                            // Keep the recorded checksum so later runs keep reporting the file.
+                            job.corrupted.incrementAndGet();
+                            job.problem("Content changed: " + path);
+                            current.put(path, known);
+                            return;
+                        }
+                        current.put(path, new ManifestEntry(checksum, size, modified));
+                    } catch (IOException | RuntimeException e) {
+                        job.failed.incrementAndGet();
+                        job.problem("Could not read " + path + ": " + e.getMessage());
+                        if (known != null) current.put(path, known);
+                    } finally {
+                        job.fileDone();
+                        inFlight.release();
+                    }
+                });
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                job.failed.incrementAndGet();
+                job.problem("Could not read " + root.relativize(file) + ": " + e.getMessage());
+                return FileVisitResult.CONTINUE;
+            }
+        });
+
+        inFlight.acquire(slots);
+        if (Thread.currentThread().isInterrupted()) {
+            throw new InterruptedException();
+        }
+        if (result.isCancelled()) {
+            return null;
+        }
+
+        long missing = previous.keySet().stream().filter(path -> !current.containsKey(path)).count();
+        writeManifest(manifest, root, algorithm, current);
+        job.report(true);
+        return new Report(job, missing, manifest);
+    }
+
+    private static int threadsFor(FileStore store) {
+        String value = System.getProperty("explorer.checksum.threads." + store.name(),
+                System.getProperty("explorer.checksum.threads"));
+        try {
+            return value == null ? DEFAULT_THREADS : Math.max(1, Integer.parseInt(value.trim()));
+        } catch (NumberFormatException e) {
+            return DEFAULT_THREADS;
+        }
+    }
+
+    private static String checksum(Path file, Algorithm algorithm) throws IOException {
+        ByteBuffer buffer = BUFFERS.get();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (algorithm == Algorithm.CRC32C) {
+                CRC32C crc = new CRC32C();
+                while (channel.read(buffer.clear()) >= 0) {
+                    crc.update(buffer.flip());
+                }
+                return String.format("%08x", crc.getValue());
+            }
+
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            while (channel.read(buffer.clear()) >= 0) {
+                digest.update(buffer.flip());
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Map<String, ManifestEntry> readManifest(Path manifest) throws IOException {
+        Map<String, ManifestEntry> entries = new ConcurrentHashMap<>();
+        if (!Files.isRegularFile(manifest)) return entries;
+
+        try (BufferedReader reader = Files.newBufferedReader(manifest, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("#")) continue;
+                String[] fields = line.split("\t", 4);
+                if (fields.length < 4) continue;
+                try {
+                    entries.put(fields[3], new ManifestEntry(fields[0], Long.parseLong(fields[1]), Long.parseLong(fields[2])));
+                } catch (NumberFormatException ignored) {
+                }
+            }
+        }
+        return entries;
+    }
+
+    // One line per file: checksum, size, modification time (ms), path relative to the folder.
+    private static void writeManifest(Path manifest, Path root, Algorithm algorithm, Map<String, ManifestEntry> entries)
+            throws IOException {
+        Files.createDirectories(manifest.getParent());
+        // A temp file per job: two verifications of the same folder may finish at the same time.
+        Path temp = Files.createTempFile(manifest.getParent(), manifest.getFileName().toString(), ".tmp");
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                writer.write("# " + algorithm.getLabel() + " manifest of " + root.toAbsolutePath());
+                writer.newLine();
+                for (Map.Entry<String, ManifestEntry> entry : new TreeMap<>(entries).entrySet()) {
+                    ManifestEntry value = entry.getValue();
+                    writer.write(value.checksum + "\t" + value.size + "\t" + value.modified + "\t" + entry.getKey());
+                    writer.newLine();
+                }
+            }
+            Files.move(temp, manifest, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static double megabytesPerSecond(long bytes, long nanos) {
+        return nanos <= 0 ? 0 : bytes / 1_048_576.0 / (nanos / 1e9);
+    }
+}
@@ -0,0 +1,194 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Windowed view of a directory too large to list at once. Entries are read lazily
+ * from a DirectoryStream in file-system order and only a sliding window of them is
+ * kept as FileItems; a jump back past the window reopens the stream and skips
+ * forward by name alone. After sortAll() pages come from an ExternalSorter result
+ * instead. Methods are synchronized; sortAll() sorts outside the lock, so pages can
+ * still be read while a long sort runs on another thread.
+ */
+public class DirectoryPager implements Closeable {
+    /** Folders with more entries than this are paged rather than listed at once. */
+    public static final int PAGED_THRESHOLD = 20_000;
+
+    private final Path directory;
+    private final int windowSize;
+    private DirectoryStream<Path> stream;
+    private Iterator<Path> iterator;
+    private long streamPosition;
+    private final ArrayDeque<FileItem> window = new ArrayDeque<>();
+    private long knownCount;
+    private boolean complete;
+    private ExternalSorter.SortedListing sorted;
+    private String sortedBy;
+    private boolean closed;
+
+    public DirectoryPager(Path directory, int windowSize) {
+        this.directory = directory;
+        this.windowSize = windowSize;
+    }
+
+    /** Counts entries without reading attributes, stopping once the limit is exceeded. */
+    public static int countUpTo(Path directory, int limit) {
+        int count = 0;
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+            for (Iterator<Path> it = entries.iterator(); it.hasNext() && count <= limit; it.next()) {
+                count++;
+            }
+        } catch (IOException | DirectoryIteratorException e) {
+            return 0;
+        }
+        return count;
+    }
+
+    public synchronized List<FileItem> page(long offset, int count) throws IOException {
+        if (sorted != null) {
+            return sorted.read(offset, count);
+        }
+
+        long windowStart = streamPosition - window.size();
+        long end = offset + count;
+        if (offset < windowStart) {
+            // Going backwards: start over and stop half a window past the request,
+            // so paging in either direction is served from memory for a while.
+            reopen();
+            readUntil(Math.max(end, offset + windowSize / 2));
+        } else if (end > streamPosition) {
+            readUntil(end);
+        }
+
+        List<FileItem> items = new ArrayList<>(count);
+        long position = streamPosition - window.size();
+        for (FileItem item : window) {
+            if (position >= offset && position < end) items.add(item);
+            position++;
+        }
+        return items;
+    }
+
+    /** Position of the first entry whose name starts with the prefix, or -1. */
+    public synchronized long find(String prefix) throws IOException {
+        if (sorted != null) {
+            return sorted.find(prefix);
+        }
+
+        String normalized = prefix.toLowerCase(Locale.ROOT);
+        long position = 0;
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+            for (Path entry : entries) {
+                if (entry.getFileName().toString().toLowerCase(Locale.ROOT).startsWith(normalized)) {
+                    return position;
+                }
+                position++;
+            }
+        } catch (DirectoryIteratorException e) {
+            throw e.getCause();
+        }
+        knownCount = position;
+        complete = true;
+        return -1;
+    }
+
+    public void sortAll(String sortBy, boolean descending) throws IOException {
+        ExternalSorter.SortedListing result = ExternalSorter.sort(directory, sortBy, descending);
+        synchronized (this) {
+            if (closed) {
+                result.close();
+                return;
+            }
+            closeSorted();
+            closeStream();
+            sorted = result;
+            sortedBy = sortBy + (descending ? " (desc)" : "");
+            knownCount = result.size();
+            complete = true;
+        }
+    }
+
+    public synchronized boolean isSorted() {
+        return sorted != null;
+    }
+
+    public synchronized String getSortedBy() {
+        return sortedBy;
+    }
+
+    /** Entries seen so far; exact once isComplete() is true. */
+    public synchronized long getKnownCount() {
+        return knownCount;
+    }
+
+    public synchronized boolean isComplete() {
+        return complete;
+    }
+
+    private void readUntil(long target) throws IOException {
+        if (iterator == null) {
+            reopen();
+        }
+        long firstKept = target - windowSize;
+        // The window always ends at streamPosition; drop what would fall out of it.
+        while (!window.isEmpty() && streamPosition - window.size() < firstKept) {
+            window.removeFirst();
+        }
+        try {
+            while (streamPosition < target && iterator.hasNext()) {
+                Path entry = iterator.next();
+                if (streamPosition >= firstKept) {
+                    window.addLast(new FileItem(entry.toFile()));
+                    if (window.size() > windowSize) window.removeFirst();
+                }
+                streamPosition++;
+            }
+            if (!iterator.hasNext()) {
+                complete = true;
+            }
+        } catch (DirectoryIteratorException e) {
+            throw e.getCause();
+        }
+        knownCount = Math.max(knownCount, streamPosition);
+    }
+
+    private void reopen() throws IOException {
+        closeStream();
+        stream = Files.newDirectoryStream(directory);
+        iterator = stream.iterator();
+        streamPosition = 0;
+        window.clear();
+    }
+
+    private void closeStream() throws IOException {
+        if (stream != null) {
+            stream.close();
+            stream = null;
+            iterator = null;
+        }
+        streamPosition = 0;
+        window.clear();
+    }
+
+    private void closeSorted() {
+        if (sorted != null) {
+            sorted.close();
+            sorted = null;
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        closed = true;
+        closeSorted();
+        closeStream();
+    }
+}
@@ -0,0 +1,113 @@
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * State and workers shared by every tab and pane of one window.
+ *
+ * In fast-start mode (the default; -Dexplorer.fastStart=false turns it off) work
+ * passed to runAfterFirstFrame() is held back until the window has been laid out
+ * once, so the first frame only shows the remembered roots and their last sizes.
+ */
+public class ExplorerServices {
+    private static final Path STATE_DIR = Paths.get(System.getProperty("user.home"), ".file-explorer");
+    private static final Path STATE_FILE = STATE_DIR.resolve("roots.properties");
+
+    private final FolderManager folderManager = new FolderManager();
+    private final ListingCache listingCache = new ListingCache(256, 30_000, DirectoryPager.PAGED_THRESHOLD);
+    private final ExecutorService workerPool = Executors.newFixedThreadPool(2, r -> {
+        Thread thread = new Thread(r, "size-worker");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ExecutorService listingExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "listing-worker");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // External sorts of paged folders can take minutes; keep them off the listing worker.
+    private final ExecutorService sortExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "sort-worker");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final FolderSizeEngine sizeEngine = new FolderSizeEngine(workerPool);
+    private FolderWatcher folderWatcher;
+    private ChecksumService checksumService;
+    private List<Runnable> afterFirstFrame =
+            "false".equals(System.getProperty("explorer.fastStart")) ? null : new ArrayList<>();
+
+    public ExplorerServices() {
+        folderManager.load(STATE_FILE);
+        folderManager.addListener(() -> folderManager.save(STATE_FILE));
+    }
+
+    public FolderManager getFolderManager() {
+        return folderManager;
+    }
+
+    public ListingCache getListingCache() {
+        return listingCache;
+    }
+
+    public FolderSizeEngine getSizeEngine() {
+        return sizeEngine;
+    }
+
+    public ExecutorService getListingExecutor() {
+        return listingExecutor;
+    }
+
+    public ExecutorService getSortExecutor() {
+        return sortExecutor;
+    }
+
+    /** Created on first use, so startup does not pay for the watch service and its thread. */
+    public FolderWatcher getFolderWatcher() {
+        if (folderWatcher == null) {
+            folderWatcher = new FolderWatcher();
+        }
+        return folderWatcher;
+    }
+
+    public ChecksumService getChecksumService() {
+        if (checksumService == null) {
+            checksumService = new ChecksumService(STATE_DIR.resolve("checksums"));
+        }
+        return checksumService;
+    }
+
+    public void runAfterFirstFrame(Runnable task) {
+        if (afterFirstFrame == null) {
+            task.run();
+        } else {
+            afterFirstFrame.add(task);
+        }
+    }
+
+    public void firstFrameShown() {
+        List<Runnable> deferred = afterFirstFrame;
+        afterFirstFrame = null;
+        if (deferred != null) {
+            deferred.forEach(Runnable::run);
+        }
+    }
+
+    public void shutdown() {
+        folderManager.save(STATE_FILE);
+        workerPool.shutdownNow();
+        listingExecutor.shutdownNow();
+        sortExecutor.shutdownNow();
+        listingCache.shutdown();
+        sizeEngine.shutdown();
+        if (folderWatcher != null) {
+            folderWatcher.shutdown();
+        }
+        if (checksumService != null) {
+            checksumService.shutdown();
+        }
+    }
+}
@@ -0,0 +1,231 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+
+/**
+ * Sorts a whole directory with bounded memory. Entries are collected into runs of
+ * RUN_SIZE items, each run is sorted in memory and written to a temp file, and the
+ * runs are then merged k-way into fixed-size segments. Pages are read back from
+ * the segments, so only one page of items is in memory after sorting.
+ */
+public class ExternalSorter {
+    private static final int RUN_SIZE = 50_000;
+    private static final int SEGMENT_SIZE = 4096;
+
+    public static SortedListing sort(Path directory, String sortBy, boolean descending) throws IOException {
+        Comparator<FileItem> order = Sorter.comparator(sortBy, descending);
+        Path workDir = Files.createTempDirectory("explorer-sort");
+        SortedListing listing = new SortedListing(directory.toFile(), workDir);
+        try {
+            List<Path> runs = writeRuns(directory, workDir, order);
+            merge(runs, listing, order);
+            for (Path run : runs) {
+                Files.deleteIfExists(run);
+            }
+            return listing;
+        } catch (IOException | RuntimeException e) {
+            listing.close();
+            throw e;
+        }
+    }
+
+    private static List<Path> writeRuns(Path directory, Path workDir, Comparator<FileItem> order) throws IOException {
+        List<Path> runs = new ArrayList<>();
+        List<FileItem> buffer = new ArrayList<>(RUN_SIZE);
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+            for (Path entry : entries) {
+                buffer.add(readItem(entry));
+                if (buffer.size() == RUN_SIZE) {
+                    runs.add(writeRun(buffer, workDir, runs.size(), order));
+                    buffer.clear();
+                }
+            }
+        } catch (DirectoryIteratorException e) {
+            throw e.getCause();
+        }
+        if (!buffer.isEmpty() || runs.isEmpty()) {
+            runs.add(writeRun(buffer, workDir, runs.size(), order));
+        }
+        return runs;
+    }
+
+    private static FileItem readItem(Path entry) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(entry, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+            return new FileItem(entry.toFile(), attributes.isDirectory(), attributes.size());
+        } catch (IOException e) {
+            return new FileItem(entry.toFile(), false, 0);
+        }
+    }
+
+    private static Path writeRun(List<FileItem> items, Path workDir, int number, Comparator<FileItem> order) throws IOException {
+        items.sort(order);
+        Path run = workDir.resolve("run-" + number + ".bin");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run)))) {
+            out.writeInt(items.size());
+            for (FileItem item : items) {
+                writeItem(out, item);
+            }
+        }
+        return run;
+    }
+
+    private static void merge(List<Path> runs, SortedListing listing, Comparator<FileItem> order) throws IOException {
+        PriorityQueue<RunReader> heads = new PriorityQueue<>((a, b) -> order.compare(a.head, b.head));
+        try {
+            for (Path run : runs) {
+                RunReader reader = new RunReader(run, listing.folder);
+                if (reader.advance()) {
+                    heads.add(reader);
+                } else {
+                    reader.close();
+                }
+            }
+
+            DataOutputStream segment = null;
+            try {
+                while (!heads.isEmpty()) {
+                    RunReader reader = heads.poll();
+                    if (listing.size % SEGMENT_SIZE == 0) {
+                        if (segment != null) segment.close();
+                        segment = new DataOutputStream(new BufferedOutputStream(
+                                Files.newOutputStream(listing.segment(listing.segments++))));
+                    }
+                    writeItem(segment, reader.head);
+                    listing.size++;
+
+                    if (reader.advance()) {
+                        heads.add(reader);
+                    } else {
+                        reader.close();
+                    }
+                }
+            } finally {
+                if (segment != null) segment.close();
+            }
+        } finally {
+            for (RunReader reader : heads) {
+                reader.close();
+            }
+        }
+    }
+
+    private static void writeItem(DataOutputStream out, FileItem item) throws IOException {
+        out.writeBoolean(item.isDirectory());
+        out.writeLong(item.getSize());
+        out.writeUTF(item.getName());
+    }
+
+    private static FileItem readItem(DataInputStream in, File folder) throws IOException {
+        boolean directory = in.readBoolean();
+        long size = in.readLong();
+        return new FileItem(new File(folder, in.readUTF()), directory, size);
+    }
+
+    private static class RunReader implements Closeable {
+        private final DataInputStream in;
+        private final File folder;
+        private int remaining;
+        FileItem head;
+
+        RunReader(Path run, File folder) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(run)));
+            this.folder = folder;
+            this.remaining = in.readInt();
+        }
+
+        boolean advance() throws IOException {
+            if (remaining == 0) return false;
+            remaining--;
+            head = readItem(in, folder);
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    /** The sorted result; close() deletes its temp files. */
+    public static class SortedListing implements Closeable {
+        private final File folder;
+        private final Path workDir;
+        private int segments;
+        private long size;
+
+        SortedListing(File folder, Path workDir) {
+            this.folder = folder;
+            this.workDir = workDir;
+        }
+
+        private Path segment(int number) {
+            return workDir.resolve("segment-" + number + ".bin");
+        }
+
+        public long size() {
+            return size;
+        }
+
+        public List<FileItem> read(long offset, int count) throws IOException {
+            List<FileItem> items = new ArrayList<>(count);
+            long position = offset - offset % SEGMENT_SIZE;
+            while (items.size() < count && position < size) {
+                try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                        Files.newInputStream(segment((int) (position / SEGMENT_SIZE)))))) {
+                    long segmentEnd = Math.min(position + SEGMENT_SIZE, size);
+                    for (; position < segmentEnd && items.size() < count; position++) {
+                        FileItem item = readItem(in, folder);
+                        if (position >= offset) items.add(item);
+                    }
+                }
+            }
+            return items;
+        }
+
+        /** Position of the first entry whose name starts with the prefix, or -1. */
+        public long find(String prefix) throws IOException {
+            String normalized = prefix.toLowerCase(Locale.ROOT);
+            long position = 0;
+            for (int number = 0; number < segments; number++) {
+                try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(segment(number))))) {
+                    long segmentEnd = Math.min(position + SEGMENT_SIZE, size);
+                    for (; position < segmentEnd; position++) {
+                        in.readBoolean();
+                        in.readLong();
+                        if (in.readUTF().toLowerCase(Locale.ROOT).startsWith(normalized)) {
+                            return position;
+                        }
+                    }
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        public void close() {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(workDir)) {
+                for (Path file : files) {
+                    Files.deleteIfExists(file);
+                }
+                Files.deleteIfExists(workDir);
+            } catch (IOException | DirectoryIteratorException ignored) {
+            }
+        }
+    }
+}
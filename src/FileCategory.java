@@ -0,0 +1,53 @@
+import java.util.HashMap;
+import java.util.Map;
+
+public enum FileCategory {
+    IMAGES("Images", "\uD83D\uDDBC", "jpg", "jpeg", "png", "gif", "bmp"), // 🖼️
+    VIDEOS("Videos", "\uD83C\uDFAC", "mp4", "avi", "mov", "mkv", "flv"), // 🎬
+    AUDIO("Audio", "\uD83C\uDFB5", "mp3", "wav", "ogg", "aac"), // 🎵
+    PDFS("PDFs", "\uD83D\uDCC4", "pdf"), // 📄
+    DOCUMENTS("Documents", "\uD83D\uDCDD", "doc", "docx", "txt", "rtf"), // 📝
+    OTHER("Other Files", "\uD83D\uDCCB"); // 📋
+
+    private static final Map<String, FileCategory> BY_EXTENSION = new HashMap<>();
+
+    static {
+        for (FileCategory category : values()) {
+            for (String extension : category.extensions) {
+                BY_EXTENSION.put(extension, category);
+            }
+        }
+    }
+
+    private final String label;
+    private final String icon;
+    private final String[] extensions;
+
+    FileCategory(String label, String icon, String... extensions) {
+        this.label = label;
+        this.icon = icon;
+        this.extensions = extensions;
+    }
+
+    public static FileCategory of(String extension) {
+        if (extension == null || extension.isEmpty()) return OTHER;
+        FileCategory category = BY_EXTENSION.get(extension);
+        if (category == null) {
+            category = BY_EXTENSION.getOrDefault(extension.toLowerCase(), OTHER);
+        }
+        return category;
+    }
+
+    public static String extensionOf(String fileName) {
+        int lastDot = fileName.lastIndexOf('.');
+        return lastDot == -1 ? "" : fileName.substring(lastDot + 1).toLowerCase();
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public String getIcon() {
+        return icon;
+    }
+}
@@ -4,19 +4,22 @@ public class FileItem {
     private final File file;
     private final String name;
     private final String extension;
+    private final FileCategory category;
+    private final boolean directory;
     private long size;
 
     public FileItem(File file) {
-        this.file = file;
-        this.name = file.getName();
-        this.size = file.length();
-        this.extension = file.isDirectory() ? "" : getFileExtension(file);
+        this(file, file.isDirectory(), file.length());
     }
 
-    private String getFileExtension(File file) {
-        String name = file.getName();
-        int lastDot = name.lastIndexOf('.');
-        return lastDot == -1 ? "" : name.substring(lastDot + 1).toLowerCase();
+    /** For entries whose attributes are already known, e.g. read back from a sort run. */
+    public FileItem(File file, boolean directory, long size) {
+        this.file = file;
+        this.name = file.getName();
+        this.size = size;
+        this.directory = directory;
+        this.extension = directory ? "" : FileCategory.extensionOf(name);
+        this.category = FileCategory.of(extension);
     }
 
     public void setSize(long size) {
@@ -31,6 +34,14 @@ public class FileItem {
         return extension;
     }
 
+    public FileCategory getCategory() {
+        return category;
+    }
+
+    public boolean isDirectory() {
+        return directory;
+    }
+
     public long getSize() {
         return size;
     }
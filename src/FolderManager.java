@@ -1,8 +1,20 @@
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class FolderManager {
     private final LinkedList<File> folders;
+    private final List<Runnable> listeners = new ArrayList<>();
+    private final Map<File, Long> lastKnownSizes = new ConcurrentHashMap<>();
 
     public FolderManager() {
         this.folders = new LinkedList<>();
@@ -11,6 +23,7 @@ public class FolderManager {
     public void addFolder(File folder) {
         if (folders.stream().noneMatch(f -> f.getAbsolutePath().equals(folder.getAbsolutePath()))) {
             folders.add(folder);
+            fireChanged();
         }
     }
 
@@ -19,6 +32,72 @@ public class FolderManager {
     }
 
     public void removeFolder(File folder) {
-        folders.remove(folder);
+        if (folders.remove(folder)) {
+            lastKnownSizes.remove(folder);
+            fireChanged();
+        }
+    }
+
+    /** The size a root had when it was last measured, possibly in an earlier session. */
+    public Long getLastKnownSize(File folder) {
+        return lastKnownSizes.get(folder);
+    }
+
+    public void setLastKnownSize(File folder, long size) {
+        if (folders.contains(folder)) {
+            lastKnownSizes.put(folder, size);
+        }
+    }
+
+    public void addListener(Runnable listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Runnable listener) {
+        listeners.remove(listener);
+    }
+
+    private void fireChanged() {
+        new ArrayList<>(listeners).forEach(Runnable::run);
+    }
+
+    public void load(Path stateFile) {
+        if (!Files.isRegularFile(stateFile)) return;
+
+        Properties state = new Properties();
+        try (InputStream in = Files.newInputStream(stateFile)) {
+            state.load(in);
+        } catch (IOException e) {
+            return;
+        }
+        for (int i = 0; state.containsKey("root." + i); i++) {
+            File folder = new File(state.getProperty("root." + i));
+            if (folders.contains(folder)) continue;
+            folders.add(folder);
+            try {
+                lastKnownSizes.put(folder, Long.parseLong(state.getProperty("size." + i, "")));
+            } catch (NumberFormatException ignored) {
+            }
+        }
+    }
+
+    public void save(Path stateFile) {
+        Properties state = new Properties();
+        int i = 0;
+        for (File folder : folders) {
+            state.setProperty("root." + i, folder.getAbsolutePath());
+            Long size = lastKnownSizes.get(folder);
+            if (size != null) {
+                state.setProperty("size." + i, Long.toString(size));
+            }
+            i++;
+        }
+        try {
+            Files.createDirectories(stateFile.getParent());
+            try (OutputStream out = Files.newOutputStream(stateFile)) {
+                state.store(out, "File Explorer roots");
+            }
+        } catch (IOException ignored) {
+        }
     }
-}
\ No newline at end of file
+}
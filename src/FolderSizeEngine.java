@@ -0,0 +1,280 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileStore;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Folder size calculation shared by every pane. Requests for a folder that is
+ * already being measured join the running walk, and finished results are kept
+ * for a while so another pane showing the same tree does no extra I/O.
+ *
+ * The walk identifies files and directories by their file key: a hardlinked file
+ * is counted once, and a directory reached a second time (symlink or bind-mount
+ * loop) is not descended into again. Symlinks are not followed unless the
+ * explorer.size.followLinks property is set; when they are, every file is tracked
+ * by key, because a file reached through a symlink still has a link count of one.
+ * explorer.size.oneFileSystem keeps the walk on the file store of the folder
+ * being measured.
+ */
+public class FolderSizeEngine {
+    private static final long RESULT_TTL = 60_000;
+    private static final long DEFAULT_BLOCK_SIZE = 4096;
+    private static final String UNIX_ATTRIBUTES = "unix:size,nlink,dev,ino,isDirectory,isRegularFile,isSymbolicLink";
+
+    private static class CachedResult {
+        final SizeResult result;
+        final long computedAt;
+
+        CachedResult(SizeResult result, long computedAt) {
+            this.result = result;
+            this.computedAt = computedAt;
+        }
+    }
+
+    private final ExecutorService executor;
+    private final ForkJoinPool walkPool = new ForkJoinPool();
+    private final boolean followLinks = Boolean.getBoolean("explorer.size.followLinks");
+    private final boolean oneFileSystem = Boolean.getBoolean("explorer.size.oneFileSystem");
+    private final Map<File, CompletableFuture<Long>> inFlight = new ConcurrentHashMap<>();
+    private final Map<File, CachedResult> results = new ConcurrentHashMap<>();
+
+    public FolderSizeEngine(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    public CompletableFuture<Long> sizeOf(File folder) {
+        Long cached = getCachedSize(folder);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        CompletableFuture<Long> future = new CompletableFuture<>();
+        CompletableFuture<Long> existing = inFlight.putIfAbsent(folder, future);
+        if (existing != null) {
+            return existing;
+        }
+        executor.submit(() -> run(folder, future));
+        return future;
+    }
+
+    public long calculate(File folder) {
+        Long cached = getCachedSize(folder);
+        if (cached != null) {
+            return cached;
+        }
+
+        CompletableFuture<Long> future = new CompletableFuture<>();
+        CompletableFuture<Long> existing = inFlight.putIfAbsent(folder, future);
+        if (existing != null) {
+            return existing.join();
+        }
+        run(folder, future);
+        return future.join();
+    }
+
+    public Long getCachedSize(File folder) {
+        SizeResult result = getResult(folder);
+        return result == null ? null : result.getApparentSize();
+    }
+
+    public SizeResult getResult(File folder) {
+        CachedResult cached = results.get(folder);
+        if (cached == null) {
+            return null;
+        }
+        if (System.currentTimeMillis() - cached.computedAt > RESULT_TTL) {
+            results.remove(folder, cached);
+            return null;
+        }
+        return cached.result;
+    }
+
+    public void shutdown() {
+        walkPool.shutdownNow();
+    }
+
+    private void run(File folder, CompletableFuture<Long> future) {
+        long size = -1;
+        try {
+            SizeResult result = measure(folder.toPath());
+            results.put(folder, new CachedResult(result, System.currentTimeMillis()));
+            size = result.getApparentSize();
+        } catch (IOException | RuntimeException e) {
+            size = -1;
+        } finally {
+            inFlight.remove(folder, future);
+            future.complete(size);
+        }
+    }
+
+    private SizeResult measure(Path root) throws IOException {
+        if (!Files.exists(root)) {
+            return new SizeResult();
+        }
+        return walkPool.invoke(new DirectoryTask(root, new Walk(root)));
+    }
+
+    private static class Entry {
+        final long size;
+        final long links;
+        final Object device;
+        final Object key;
+        final boolean directory;
+        final boolean regular;
+        final boolean symlink;
+
+        Entry(long size, long links, Object device, Object key, boolean directory, boolean regular, boolean symlink) {
+            this.size = size;
+            this.links = links;
+            this.device = device;
+            this.key = key;
+            this.directory = directory;
+            this.regular = regular;
+            this.symlink = symlink;
+        }
+    }
+
+    /** State shared by all tasks of one measurement. */
+    private class Walk {
+        final Set<Object> seenDirectories = ConcurrentHashMap.newKeySet();
+        final Map<Object, AtomicBoolean> seenFiles = new ConcurrentHashMap<>();
+        final LinkOption[] linkOptions = followLinks ? new LinkOption[0] : new LinkOption[]{LinkOption.NOFOLLOW_LINKS};
+        final boolean unix;
+        final long blockSize;
+        final FileStore rootStore;
+        final Object rootDevice;
+
+        Walk(Path root) throws IOException {
+            this.unix = root.getFileSystem().supportedFileAttributeViews().contains("unix");
+            this.rootStore = Files.getFileStore(root);
+            this.blockSize = blockSizeOf(rootStore);
+            Entry entry = stat(root, true);
+            this.rootDevice = entry == null ? null : entry.device;
+            if (entry != null && entry.key != null) {
+                seenDirectories.add(entry.key);
+            }
+        }
+
+        Entry stat(Path path, boolean follow) {
+            LinkOption[] options = follow ? new LinkOption[0] : linkOptions;
+            try {
+                if (unix) {
+                    Map<String, Object> attributes = Files.readAttributes(path, UNIX_ATTRIBUTES, options);
+                    Object device = attributes.get("dev");
+                    return new Entry((Long) attributes.get("size"), ((Number) attributes.get("nlink")).longValue(),
+                            device, device + ":" + attributes.get("ino"),
+                            (Boolean) attributes.get("isDirectory"), (Boolean) attributes.get("isRegularFile"),
+                            (Boolean) attributes.get("isSymbolicLink"));
+                }
+                BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class, options);
+                return new Entry(attributes.size(), 1, null, attributes.fileKey(), attributes.isDirectory(),
+                        attributes.isRegularFile(), attributes.isSymbolicLink());
+            } catch (IOException | UnsupportedOperationException e) {
+                return null;
+            }
+        }
+
+        boolean onRootStore(Path directory, Entry entry) {
+            if (entry.device != null && rootDevice != null) {
+                return entry.device.equals(rootDevice);
+            }
+            try {
+                return Objects.equals(Files.getFileStore(directory), rootStore);
+            } catch (IOException e) {
+                return false;
+            }
+        }
+
+        long allocated(long size) {
+            return (size + blockSize - 1) / blockSize * blockSize;
+        }
+    }
+
+    private static long blockSizeOf(FileStore store) {
+        try {
+            long blockSize = store.getBlockSize();
+            return blockSize > 0 ? blockSize : DEFAULT_BLOCK_SIZE;
+        } catch (IOException | UnsupportedOperationException e) {
+            return DEFAULT_BLOCK_SIZE;
+        }
+    }
+
+    private class DirectoryTask extends RecursiveTask<SizeResult> {
+        private static final long serialVersionUID = 1L;
+
+        private final Path directory;
+        private final Walk walk;
+
+        DirectoryTask(Path directory, Walk walk) {
+            this.directory = directory;
+            this.walk = walk;
+        }
+
+        @Override
+        protected SizeResult compute() {
+            SizeResult result = new SizeResult();
+            List<DirectoryTask> subtasks = new ArrayList<>();
+
+            try (DirectoryStream<Path> children = Files.newDirectoryStream(directory)) {
+                for (Path child : children) {
+                    Entry entry = walk.stat(child, false);
+                    if (entry == null || entry.symlink) {
+                        continue;
+                    }
+
+                    if (entry.directory) {
+                        if (oneFileSystem && !walk.onRootStore(child, entry)) {
+                            result.mountSkipped();
+                        } else if (entry.key != null && !walk.seenDirectories.add(entry.key)) {
+                            result.loopSkipped();
+                        } else {
+                            DirectoryTask task = new DirectoryTask(child, walk);
+                            task.fork();
+                            subtasks.add(task);
+                        }
+                    } else if (entry.regular) {
+                        boolean viaLink = followLinks && Files.isSymbolicLink(child);
+                        AtomicBoolean plainSeen = (followLinks || entry.links > 1) && entry.key != null
+                                ? walk.seenFiles.putIfAbsent(entry.key, new AtomicBoolean(!viaLink)) : null;
+                        if (plainSeen != null) {
+                            // Whichever copy came first, a file with P plain entries and L symlinks
+                            // to it ends up as P - 1 hardlinks and L symlinks skipped.
+                            if (!viaLink && plainSeen.getAndSet(true)) {
+                                result.hardlinkSkipped();
+                            } else {
+                                result.symlinkSkipped();
+                            }
+                        } else {
+                            Path name = child.getFileName();
+                            result.addFile(FileCategory.extensionOf(name == null ? "" : name.toString()),
+                                    entry.size, walk.allocated(entry.size));
+                        }
+                    }
+                }
+            } catch (IOException | DirectoryIteratorException | SecurityException e) {
+                // Unreadable directories count as empty, like File.listFiles() returning null.
+            }
+
+            for (DirectoryTask task : subtasks) {
+                result.merge(task.join());
+            }
+            return result;
+        }
+    }
+}
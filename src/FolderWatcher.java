@@ -0,0 +1,122 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Watches the folders panes are showing and reports the entries that changed.
+ * Events are delivered in batches on the watcher thread, one batch per poll of
+ * a folder; a null file in a batch means events were lost and the folder has to
+ * be listed again.
+ */
+public class FolderWatcher {
+    public enum Kind { CREATED, DELETED, MODIFIED }
+
+    public static class Change {
+        private final Kind kind;
+        private final File file;
+
+        Change(Kind kind, File file) {
+            this.kind = kind;
+            this.file = file;
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        public File getFile() {
+            return file;
+        }
+    }
+
+    private final WatchService service;
+    private final Map<WatchKey, List<Consumer<List<Change>>>> listeners = new ConcurrentHashMap<>();
+
+    public FolderWatcher() {
+        WatchService watchService;
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+        } catch (IOException | UnsupportedOperationException e) {
+            watchService = null;
+        }
+        this.service = watchService;
+
+        if (service != null) {
+            Thread thread = new Thread(this::run, "folder-watcher");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /** Starts watching the folder; running the returned handle stops it again. */
+    public Runnable watch(File folder, Consumer<List<Change>> listener) {
+        if (service == null) {
+            return () -> { };
+        }
+        WatchKey key;
+        try {
+            key = folder.toPath().register(service, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException | RuntimeException e) {
+            return () -> { };
+        }
+        listeners.computeIfAbsent(key, k -> new CopyOnWriteArrayList<>()).add(listener);
+
+        return () -> listeners.computeIfPresent(key, (k, list) -> {
+            list.remove(listener);
+            if (list.isEmpty()) {
+                k.cancel();
+                return null;
+            }
+            return list;
+        });
+    }
+
+    public void shutdown() {
+        if (service == null) return;
+        try {
+            service.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                Path folder = (Path) key.watchable();
+                List<Change> changes = new ArrayList<>();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    WatchEvent.Kind<?> kind = event.kind();
+                    if (kind == StandardWatchEventKinds.OVERFLOW) {
+                        changes.add(new Change(Kind.MODIFIED, null));
+                        continue;
+                    }
+                    File file = folder.resolve((Path) event.context()).toFile();
+                    changes.add(new Change(kind == StandardWatchEventKinds.ENTRY_CREATE ? Kind.CREATED
+                            : kind == StandardWatchEventKinds.ENTRY_DELETE ? Kind.DELETED : Kind.MODIFIED, file));
+                }
+                key.reset();
+
+                List<Consumer<List<Change>>> targets = listeners.get(key);
+                if (targets != null && !changes.isEmpty()) {
+                    targets.forEach(listener -> listener.accept(changes));
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Shut down.
+        }
+    }
+}
@@ -0,0 +1,199 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Bounded, time-to-live cache of directory listings. An entry is served only while it
+ * is younger than the TTL and the folder's modification time has not changed.
+ * prefetch() lists a folder in the background so a later list() is a cache hit;
+ * it gives up on folders with more than maxPrefetchEntries entries, which are
+ * paged instead of listed.
+ */
+public class ListingCache {
+    private static class Entry {
+        final File[] files;
+        final long modified;
+        final long loadedAt;
+
+        Entry(File[] files, long modified, long loadedAt) {
+            this.files = files;
+            this.modified = modified;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    private final long ttlMillis;
+    private final int maxPrefetchEntries;
+    private final Map<File, Entry> entries;
+    private final Map<File, PrefetchTask> pending = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor prefetchExecutor;
+
+    public ListingCache(int capacity, long ttlMillis, int maxPrefetchEntries) {
+        this.ttlMillis = ttlMillis;
+        this.maxPrefetchEntries = maxPrefetchEntries;
+        this.entries = new LinkedHashMap<>(capacity, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<File, Entry> eldest) {
+                return size() > capacity;
+            }
+        };
+        this.prefetchExecutor = new ThreadPoolExecutor(2, 2, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(32), r -> {
+                    Thread thread = new Thread(r, "listing-prefetch");
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                }, (task, executor) -> {
+                    // Drop the oldest queued prefetch so the most recent hover wins.
+                    if (executor.isShutdown()) {
+                        ((PrefetchTask) task).finish(null);
+                        return;
+                    }
+                    Runnable dropped = executor.getQueue().poll();
+                    if (dropped != null) {
+                        ((PrefetchTask) dropped).finish(null);
+                    }
+                    if (!executor.getQueue().offer(task)) {
+                        ((PrefetchTask) task).finish(null);
+                    }
+                });
+    }
+
+    private class PrefetchTask implements Runnable {
+        private final File folder;
+        private final CompletableFuture<File[]> future;
+
+        private final AtomicBoolean started = new AtomicBoolean(false);
+
+        PrefetchTask(File folder, CompletableFuture<File[]> future) {
+            this.folder = folder;
+            this.future = future;
+        }
+
+        /** Claims the task; false if a prefetch thread or list() already did. */
+        boolean start() {
+            return started.compareAndSet(false, true);
+        }
+
+        @Override
+        public void run() {
+            if (!start()) {
+                return;
+            }
+            try {
+                finish(loadUpTo(folder, maxPrefetchEntries));
+            } catch (RuntimeException e) {
+                finish(null);
+            }
+        }
+
+        void finish(File[] files) {
+            pending.remove(folder, this);
+            future.complete(files);
+        }
+    }
+
+    public File[] list(File folder) {
+        return listUpTo(folder, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Lists the folder in one pass that stops after limit entries. Returns null,
+     * caching nothing, if the folder has more entries than that or cannot be read.
+     */
+    public File[] listUpTo(File folder, int limit) {
+        File[] cached = getIfFresh(folder);
+        if (cached != null) {
+            return cached.length > limit ? null : cached;
+        }
+
+        PrefetchTask prefetched = pending.get(folder);
+        if (prefetched != null) {
+            if (prefetched.start()) {
+                // Still queued, maybe behind other prefetches: take it over instead of waiting.
+                prefetchExecutor.remove(prefetched);
+                File[] files = loadUpTo(folder, limit);
+                prefetched.finish(files);
+                return files;
+            }
+            File[] files = prefetched.future.join();
+            if (files != null) {
+                return files.length > limit ? null : files;
+            }
+        }
+        return loadUpTo(folder, limit);
+    }
+
+    public File[] getIfFresh(File folder) {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(folder);
+        }
+        if (entry == null) {
+            return null;
+        }
+        if (System.currentTimeMillis() - entry.loadedAt > ttlMillis || folder.lastModified() != entry.modified) {
+            invalidate(folder);
+            return null;
+        }
+        return entry.files;
+    }
+
+    public void prefetch(File folder) {
+        if (folder == null || getIfFresh(folder) != null) {
+            return;
+        }
+        PrefetchTask task = new PrefetchTask(folder, new CompletableFuture<>());
+        if (pending.putIfAbsent(folder, task) != null) {
+            return;
+        }
+        prefetchExecutor.execute(task);
+    }
+
+    public void invalidate(File folder) {
+        synchronized (entries) {
+            entries.remove(folder);
+        }
+    }
+
+    public void shutdown() {
+        for (Runnable queued : prefetchExecutor.shutdownNow()) {
+            ((PrefetchTask) queued).finish(null);
+        }
+    }
+
+    // One pass over the directory that stops as soon as it is too large to cache.
+    private File[] loadUpTo(File folder, int limit) {
+        long modified = folder.lastModified();
+        List<File> files = new ArrayList<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(folder.toPath())) {
+            for (Path entry : entries) {
+                if (files.size() == limit) {
+                    return null;
+                }
+                files.add(entry.toFile());
+            }
+        } catch (IOException | DirectoryIteratorException | InvalidPathException e) {
+            return null;
+        }
+        File[] listed = files.toArray(new File[0]);
+        synchronized (entries) {
+            entries.put(folder, new Entry(listed, modified, System.currentTimeMillis()));
+        }
+        return listed;
+    }
+}
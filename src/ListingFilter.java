@@ -0,0 +1,110 @@
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Case-insensitive substring / glob filter over a listing. Each query that only
+ * narrows the previous one is evaluated against the previous matches instead of
+ * the whole listing. Names are captured in setItems(), so apply() may run on any thread.
+ */
+public class ListingFilter<T> {
+    private final Function<T, String> nameOf;
+    private String[] names = new String[0];
+    private String[] keys;
+    private String lastQuery = "";
+    private BitSet lastMatches = new BitSet();
+
+    public ListingFilter(Function<T, String> nameOf) {
+        this.nameOf = nameOf;
+    }
+
+    public synchronized void setItems(List<T> items) {
+        names = new String[items.size()];
+        for (int i = 0; i < names.length; i++) {
+            String name = nameOf.apply(items.get(i));
+            names[i] = name == null ? "" : name;
+        }
+        keys = null;
+        lastQuery = "";
+        lastMatches = new BitSet(names.length);
+        lastMatches.set(0, names.length);
+    }
+
+    public synchronized int size() {
+        return names.length;
+    }
+
+    public synchronized BitSet apply(String query) {
+        String normalized = query == null ? "" : query.trim().toLowerCase();
+        if (keys == null) {
+            keys = new String[names.length];
+            for (int i = 0; i < names.length; i++) {
+                keys[i] = names[i].toLowerCase();
+            }
+        }
+
+        BitSet matches;
+        if (normalized.isEmpty()) {
+            matches = new BitSet(keys.length);
+            matches.set(0, keys.length);
+        } else {
+            BitSet candidates = null;
+            if (isRefinement(lastQuery, normalized)) {
+                candidates = lastMatches;
+            }
+
+            Pattern glob = isGlob(normalized) ? compileGlob(normalized) : null;
+            matches = new BitSet(keys.length);
+            if (candidates != null) {
+                for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+                    if (matches(keys[i], normalized, glob)) matches.set(i);
+                }
+            } else {
+                for (int i = 0; i < keys.length; i++) {
+                    if (matches(keys[i], normalized, glob)) matches.set(i);
+                }
+            }
+        }
+
+        lastQuery = normalized;
+        lastMatches = matches;
+        return (BitSet) matches.clone();
+    }
+
+    private static boolean matches(String key, String query, Pattern glob) {
+        return glob != null ? glob.matcher(key).matches() : key.contains(query);
+    }
+
+    // A substring query that contains the old one, or a glob that extends an old glob
+    // ending in '*', can only match a subset of the previous result.
+    private static boolean isRefinement(String previous, String query) {
+        if (previous.isEmpty()) return false;
+        if (!isGlob(previous) && !isGlob(query)) return query.contains(previous);
+        return isGlob(previous) && previous.endsWith("*") && query.startsWith(previous);
+    }
+
+    public static boolean isGlob(String query) {
+        return query.indexOf('*') >= 0 || query.indexOf('?') >= 0;
+    }
+
+    public static Pattern compileGlob(String glob) {
+        StringBuilder regex = new StringBuilder();
+        StringBuilder literal = new StringBuilder();
+        for (char c : glob.toCharArray()) {
+            if (c == '*' || c == '?') {
+                if (literal.length() > 0) {
+                    regex.append(Pattern.quote(literal.toString()));
+                    literal.setLength(0);
+                }
+                regex.append(c == '*' ? ".*" : ".");
+            } else {
+                literal.append(c);
+            }
+        }
+        if (literal.length() > 0) {
+            regex.append(Pattern.quote(literal.toString()));
+        }
+        return Pattern.compile(regex.toString(), Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    }
+}
@@ -0,0 +1,126 @@
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The items of one folder listing, kept in display order. Changes are applied
+ * one at a time: positions are found by binary search against the current
+ * comparator, so a new file or a size update never re-sorts the whole folder.
+ */
+public class ListingModel {
+    public interface Listener {
+        void inserted(int index, FileItem item);
+
+        void removed(int index, FileItem item);
+
+        void moved(int from, int to, FileItem item);
+    }
+
+    private final Comparator<FileItem> order;
+    private final List<FileItem> items = new ArrayList<>();
+    private final Map<File, FileItem> byFile = new HashMap<>();
+    private Listener listener;
+
+    public ListingModel(Comparator<FileItem> order) {
+        this.order = order;
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    public void setItems(Collection<FileItem> newItems) {
+        items.clear();
+        byFile.clear();
+        for (FileItem item : newItems) {
+            if (byFile.putIfAbsent(item.getFile(), item) == null) {
+                items.add(item);
+            }
+        }
+        items.sort(order);
+    }
+
+    public List<FileItem> getItems() {
+        return Collections.unmodifiableList(items);
+    }
+
+    public int size() {
+        return items.size();
+    }
+
+    public boolean contains(File file) {
+        return byFile.containsKey(file);
+    }
+
+    public int indexOf(File file) {
+        FileItem item = byFile.get(file);
+        return item == null ? -1 : Collections.binarySearch(items, item, order);
+    }
+
+    /** Adds the item at its sorted position, or replaces an existing item for the same file. */
+    public int insert(FileItem item) {
+        if (byFile.containsKey(item.getFile())) {
+            remove(item.getFile());
+        }
+        int index = insertionPoint(item);
+        items.add(index, item);
+        byFile.put(item.getFile(), item);
+        if (listener != null) {
+            listener.inserted(index, item);
+        }
+        return index;
+    }
+
+    public int remove(File file) {
+        int index = indexOf(file);
+        if (index < 0) {
+            return -1;
+        }
+        FileItem item = items.remove(index);
+        byFile.remove(file);
+        if (listener != null) {
+            listener.removed(index, item);
+        }
+        return index;
+    }
+
+    /**
+     * Changes the size of an item and moves it only if it is now out of order
+     * with its neighbours. Returns the item's new index, or -1 if it is unknown.
+     */
+    public int updateSize(File file, long size) {
+        int from = indexOf(file);
+        if (from < 0) {
+            return -1;
+        }
+        FileItem item = items.get(from);
+        if (item.getSize() == size) {
+            return from;
+        }
+        item.setSize(size);
+
+        boolean afterPrevious = from == 0 || order.compare(items.get(from - 1), item) < 0;
+        boolean beforeNext = from == items.size() - 1 || order.compare(item, items.get(from + 1)) < 0;
+        if (afterPrevious && beforeNext) {
+            return from;
+        }
+
+        items.remove(from);
+        int to = insertionPoint(item);
+        items.add(to, item);
+        if (listener != null) {
+            listener.moved(from, to, item);
+        }
+        return to;
+    }
+
+    private int insertionPoint(FileItem item) {
+        int index = Collections.binarySearch(items, item, order);
+        return index < 0 ? -index - 1 : index;
+    }
+}
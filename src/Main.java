@@ -1,23 +1,42 @@
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.stage.Stage;
+import java.time.Duration;
+import java.time.Instant;
 
 public class Main extends Application {
+    private static final long MAIN_STARTED = System.nanoTime();
 
     @Override
     public void start(Stage primaryStage) {
-        MainView mainView = new MainView();
-        primaryStage.setScene(mainView.getScene());
+        MainWindow mainWindow = new MainWindow();
+        primaryStage.setScene(mainWindow.getScene());
         primaryStage.setTitle("File Explorer");
         primaryStage.setWidth(800);
-        primaryStage.setHeight(600);
+        primaryStage.setHeight(640);
         primaryStage.setResizable(false);
-        mainView.setDefaultSorting();
 
-        primaryStage.setOnCloseRequest(e -> mainView.shutdown());
+        primaryStage.setOnCloseRequest(e -> mainWindow.shutdown());
+        mainWindow.setOnFirstFrame(Main::reportStartup);
 
         primaryStage.show();
     }
 
+    // -Dexplorer.startup.timing=true prints the time to the first frame;
+    // -Dexplorer.startup.exit=true quits right after it (used for CDS training runs).
+    private static void reportStartup() {
+        if (Boolean.getBoolean("explorer.startup.timing")) {
+            long sinceMain = (System.nanoTime() - MAIN_STARTED) / 1_000_000;
+            long sinceJvm = ProcessHandle.current().info().startInstant()
+                    .map(start -> Duration.between(start, Instant.now()).toMillis())
+                    .orElse(-1L);
+            System.out.println("startup: first frame " + sinceJvm + " ms after JVM start, " + sinceMain + " ms after main class init");
+        }
+        if (Boolean.getBoolean("explorer.startup.exit")) {
+            Platform.exit();
+        }
+    }
+
     public static void main(String[] args) {
         launch(args);
     }
@@ -1,88 +1,124 @@
+import javafx.animation.PauseTransition;
 import javafx.application.Platform;
+import javafx.css.PseudoClass;
 import javafx.collections.FXCollections;
-import javafx.geometry.Insets;
+import javafx.collections.ListChangeListener;
+import javafx.geometry.Bounds;
 import javafx.geometry.Pos;
-import javafx.scene.Scene;
+import javafx.scene.Parent;
 import javafx.scene.control.*;
-import javafx.scene.effect.*;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.*;
-import javafx.scene.paint.Color;
-import javafx.scene.paint.CycleMethod;
-import javafx.scene.paint.LinearGradient;
-import javafx.scene.paint.Stop;
-import javafx.scene.shape.Rectangle;
 import javafx.stage.DirectoryChooser;
+import javafx.util.Duration;
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 public class MainView {
-    private final Scene scene;
     private final FolderManager folderManager;
+    private final ListingCache listingCache;
+    private final FolderSizeEngine sizeEngine;
+    private final ExecutorService listingExecutor;
+    private final ExplorerServices services;
+    private final Runnable rootsListener;
+    private Runnable stopWatching = () -> { };
+    private ListingModel listingModel;
+    private Consumer<File> onFolderChanged = folder -> { };
     private final VBox contentPane;
     private final Stack<File> navigationStack = new Stack<>();
+    private final Deque<File> forwardStack = new ArrayDeque<>();
     private final Button backButton;
+    private final Button forwardButton;
     private final Button addFolderButton;
     private final ComboBox<String> sortComboBox;
     private final CheckBox sortOrderCheckBox;
     private final Label sortOrderLabel;
+    private final TextField filterField;
+    private final MenuButton selectButton;
+    private HBox selectionBar;
+    private Label selectionLabel;
     private final BorderPane mainLayout;
-    private static final long SIZE_CALCULATION_TIMEOUT = 5000;
-    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+    private final ScrollPane scrollPane;
+    private final UiUpdateCoalescer uiUpdates;
+    // Well below DirectoryPager.PAGED_THRESHOLD, since bigger folders are paged and never filtered.
+    private static final int BACKGROUND_FILTER_THRESHOLD = 5_000;
+    private static final int PAGE_SIZE = 500;
+    private DirectoryPager pager;
+    private HBox pagerBar;
+    private Label pageLabel;
+    private long pageOffset;
+    private long pageGeneration;
+    private long listingGeneration;
+    private boolean listingPending = false;
+    private static final int SIBLING_PREFETCH_LIMIT = 16;
+    private final Deque<File> recentlyOpened = new ArrayDeque<>();
+    private static final int VIEW_STATE_CAPACITY = 32;
+    private final Map<File, ViewState> viewStates = new LinkedHashMap<>(VIEW_STATE_CAPACITY, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<File, ViewState> eldest) {
+            return size() > VIEW_STATE_CAPACITY;
+        }
+    };
+    private File currentFolder;
+    private final Deque<ArchiveLocation> archiveStack = new ArrayDeque<>();
+    private long archiveGeneration;
+    private boolean restoringViewState = false;
+    private final PauseTransition filterDebounce = new PauseTransition(Duration.millis(150));
+    private final ListingFilter<javafx.scene.Node> cardFilter = new ListingFilter<>(MainView::cardName);
+    private List<javafx.scene.Node> filterCards = new ArrayList<>();
+    private Object[] cardData = new Object[0];
+    private boolean filterCardsDirty = true;
+    private final SelectionModel selection = new SelectionModel();
+    private static final PseudoClass SELECTED = PseudoClass.getPseudoClass("selected");
+    private static final String ROW_INDEX = "explorer.rowIndex";
+    private boolean incrementalListingChange = false;
+    private boolean recheckAfterLayout = false;
+    private long selectionGeneration;
+    private long filterGeneration;
     private List<FileItem> originalItemsCache = new ArrayList<>();
     private boolean isDescending = false;
     private boolean isInVirtualFolder = false;
 
-    private static final String PRIMARY_COLOR = "#3a56b5";
-    private static final String PRIMARY_LIGHT = "#6a83d8";
     private static final String SECONDARY_COLOR = "#f5f7fa";
-    private static final String ACCENT_COLOR = "#ff7043";
-    private static final String ACCENT_DARK = "#e64a19";
-    private static final String CARD_BG = "#ffffff";
-    private static final String CARD_HOVER = "#f0f5ff";
-    private static final String FOLDER_NAME_COLOR = "#2c4a8c";
-    private static final String DELETE_BUTTON_COLOR = "#e74c3c";
-    private static final String PATH_BAR_COLOR = "#e3f2fd";
 
     private static final String FOLDER_ICON = "\uD83D\uDCC1"; // 📁
-    private static final String IMAGE_ICON = "\uD83D\uDDBC"; // 🖼️
-    private static final String VIDEO_ICON = "\uD83C\uDFAC"; // 🎬
-    private static final String AUDIO_ICON = "\uD83C\uDFB5"; // 🎵
-    private static final String PDF_ICON = "\uD83D\uDCC4"; // 📄
-    private static final String DOC_ICON = "\uD83D\uDCDD"; // 📝
-    private static final String DEFAULT_FILE_ICON = "\uD83D\uDCCB"; // 📋
     private static final String DELETE_ICON = "\uD83D\uDDD1"; // 🗑️
     private static final String BACK_ICON = "\u2190"; // ←
+    private static final String FORWARD_ICON = "\u2192"; // →
+    private static final String ARCHIVE_ICON = "\uD83D\uDCE6"; // 📦
     private static final String ADD_ICON = "\u002B"; // ＋
 
 
-    public MainView() {
+    public MainView(ExplorerServices services) {
+        this.folderManager = services.getFolderManager();
+        this.listingCache = services.getListingCache();
+        this.sizeEngine = services.getSizeEngine();
+        this.listingExecutor = services.getListingExecutor();
+        this.services = services;
         this.backButton = new Button(BACK_ICON);
+        this.forwardButton = new Button(FORWARD_ICON);
         this.addFolderButton = new Button(ADD_ICON + " Add Folder");
         this.sortComboBox = new ComboBox<>(FXCollections.observableArrayList(
                 "Sort by name", "Sort by size", "Sort by extension"
         ));
         this.sortOrderCheckBox = new CheckBox();
         this.sortOrderLabel = new Label("Asc");
-        this.folderManager = new FolderManager();
+        this.filterField = new TextField();
+        this.selectButton = new MenuButton("Select");
 
         styleControls();
 
         mainLayout = new BorderPane();
-        mainLayout.setBackground(new Background(new BackgroundFill(
-                new LinearGradient(0, 0, 0, 1, true, CycleMethod.NO_CYCLE,
-                        new Stop(0, Color.web("#f8fafc")),
-                        new Stop(1, Color.web("#e2e8f0"))),
-                CornerRadii.EMPTY, Insets.EMPTY)));
-        mainLayout.setPadding(new Insets(15));
-        mainLayout.setEffect(new DropShadow(10, Color.gray(0, 0.1)));
-
+        mainLayout.getStyleClass().add("main-layout");
 
         HBox toolbar = createToolbar();
         HBox pathBar = createPathBar();
@@ -91,64 +127,114 @@ public class MainView {
         topContainer.setSpacing(5);
         mainLayout.setTop(topContainer);
 
-        contentPane = new VBox(10);
-        contentPane.setPadding(new Insets(15));
-        contentPane.setStyle("-fx-background-color: " + SECONDARY_COLOR + ";");
+        uiUpdates = new UiUpdateCoalescer(this::isOnScreen);
+        contentPane = new VBox();
+        contentPane.getStyleClass().add("content-pane");
+        contentPane.getChildren().addListener((ListChangeListener<javafx.scene.Node>) change -> {
+            filterCardsDirty = true;
+            if (!incrementalListingChange) {
+                if (selection.reset()) {
+                    updateSelectionSummary(false);
+                }
+                while (change.next()) {
+                    if (change.wasRemoved()) {
+                        uiUpdates.dropDetached();
+                        break;
+                    }
+                }
+            }
+            if (!filterField.getText().isEmpty()) {
+                filterDebounce.playFromStart();
+            }
+        });
+
+        contentPane.needsLayoutProperty().addListener((obs, oldVal, needsLayout) -> {
+            if (!needsLayout && recheckAfterLayout) {
+                recheckAfterLayout = false;
+                uiUpdates.viewportChanged();
+            }
+        });
 
-        ScrollPane scrollPane = new ScrollPane(contentPane);
+        scrollPane = new ScrollPane(contentPane);
         scrollPane.setFitToWidth(true);
         scrollPane.setFitToHeight(true);
         scrollPane.setHbarPolicy(ScrollPane.ScrollBarPolicy.NEVER);
-        scrollPane.setStyle("-fx-background: " + SECONDARY_COLOR + "; -fx-background-color: transparent;");
+        scrollPane.getStyleClass().add("content-scroll");
+
+        scrollPane.vvalueProperty().addListener(obs -> uiUpdates.viewportChanged());
+        scrollPane.viewportBoundsProperty().addListener(obs -> uiUpdates.viewportChanged());
 
         StackPane contentContainer = new StackPane(scrollPane);
-        contentContainer.setPadding(new Insets(0));
-        contentContainer.setStyle("-fx-background-color: " + SECONDARY_COLOR + ";");
-        contentContainer.setEffect(new DropShadow(5, Color.gray(0, 0.05)));
+        contentContainer.getStyleClass().add("content-container");
 
         mainLayout.setCenter(contentContainer);
-        scene = new Scene(mainLayout);
+        mainLayout.addEventHandler(KeyEvent.KEY_PRESSED, e -> {
+            if (e.getTarget() instanceof TextInputControl) return;
+            if (e.isShortcutDown() && e.getCode() == KeyCode.A) {
+                selectAll();
+                e.consume();
+            } else if (e.getCode() == KeyCode.ESCAPE && !selection.isEmpty()) {
+                clearSelection();
+                e.consume();
+            }
+        });
+
+        rootsListener = () -> {
+            if (currentFolder == null && !isInVirtualFolder) {
+                showRootFolders();
+            }
+        };
+        folderManager.addListener(rootsListener);
 
         showRootFolders();
     }
     private void styleControls() {
 
-        sortOrderCheckBox.setStyle("-fx-background-color: transparent;");
-        sortOrderLabel.setStyle("-fx-text-fill: white; -fx-font-weight: bold; -fx-font-size: 12px;");
+        sortOrderCheckBox.getStyleClass().add("sort-order-check");
+        sortOrderLabel.getStyleClass().add("sort-order-label");
         sortOrderCheckBox.selectedProperty().addListener((obs, oldVal, newVal) -> {
             isDescending = newVal;
             sortOrderLabel.setText(isDescending ? "Desc" : "Asc");
-            if (!isInVirtualFolder && sortComboBox.getValue() != null) {
+            if (!restoringViewState && !isInVirtualFolder && sortComboBox.getValue() != null) {
                 sortFiles(sortComboBox.getValue().replace("Sort by ", "").toLowerCase());
             }
         });
 
 
-        sortComboBox.setStyle("-fx-background-color: white; -fx-border-color: #ddd; " +
-                "-fx-border-radius: 4; -fx-padding: 6 12; -fx-font-size: 12px;");
         sortComboBox.setPromptText("Sort by...");
+
+        filterField.setPromptText("Filter (name, *.ext)");
+        filterField.setPrefWidth(170);
+        filterField.getStyleClass().add("filter-field");
+        filterField.textProperty().addListener((obs, oldVal, newVal) -> filterDebounce.playFromStart());
+        filterField.setOnKeyPressed(e -> {
+            if (e.getCode() == KeyCode.ESCAPE) {
+                filterField.clear();
+            }
+        });
+        filterDebounce.setOnFinished(e -> applyFilter());
     }
 
     private HBox createToolbar() {
-        HBox toolbar = new HBox(10);
-        toolbar.setPadding(new Insets(10, 15, 10, 15));
-        toolbar.setAlignment(Pos.CENTER_LEFT);
-        toolbar.setStyle("-fx-background-color: " + PRIMARY_COLOR + "; " +
-                "-fx-background-radius: 5;");
-        toolbar.setEffect(new InnerShadow(5, Color.gray(0, 0.2)));
-
+        HBox toolbar = new HBox();
+        toolbar.getStyleClass().add("toolbar");
 
-        styleButton(backButton, PRIMARY_LIGHT);
+        styleButton(backButton, false);
         backButton.setDisable(true);
         backButton.setOnAction(e -> goBack());
 
-        styleButton(addFolderButton, ACCENT_COLOR);
-        addFolderButton.setOnAction(e -> addFolder());
+        styleButton(forwardButton, false);
+        forwardButton.setDisable(true);
+        forwardButton.setOnAction(e -> goForward());
 
+        styleButton(addFolderButton, true);
+        addFolderButton.setOnAction(e -> addFolder());
 
         sortComboBox.setMinWidth(150);
+        // Selected before the listener is attached: the first screen is already listed by name.
+        sortComboBox.getSelectionModel().selectFirst();
         sortComboBox.getSelectionModel().selectedItemProperty().addListener((obs, oldVal, newVal) -> {
-            if (newVal != null && !isInVirtualFolder) {
+            if (newVal != null && !restoringViewState && !isInVirtualFolder) {
                 String sortBy = newVal.replace("Sort by ", "").toLowerCase();
                 sortFiles(sortBy);
             }
@@ -157,16 +243,22 @@ public class MainView {
         HBox sortOrderBox = new HBox(5, sortOrderCheckBox, sortOrderLabel);
         sortOrderBox.setAlignment(Pos.CENTER_LEFT);
 
-        toolbar.getChildren().addAll(backButton, addFolderButton, sortComboBox, sortOrderBox);
+        selectButton.getStyleClass().add("toolbar-button");
+        MenuItem selectAllItem = new MenuItem("Select all");
+        selectAllItem.setOnAction(e -> selectAll());
+        MenuItem selectPatternItem = new MenuItem("Select by pattern...");
+        selectPatternItem.setOnAction(e -> selectByPattern());
+        MenuItem clearItem = new MenuItem("Clear selection");
+        clearItem.setOnAction(e -> clearSelection());
+        selectButton.getItems().addAll(selectAllItem, selectPatternItem, clearItem);
+
+        toolbar.getChildren().addAll(backButton, forwardButton, addFolderButton, sortComboBox, sortOrderBox, filterField, selectButton);
         return toolbar;
     }
 
     private HBox createPathBar() {
-        HBox pathBar = new HBox(5);
-        pathBar.setPadding(new Insets(8, 12, 8, 12));
-        pathBar.setStyle("-fx-background-color: " + PATH_BAR_COLOR + "; " +
-                "-fx-background-radius: 5; -fx-border-radius: 5;");
-        pathBar.setAlignment(Pos.CENTER_LEFT);
+        HBox pathBar = new HBox();
+        pathBar.getStyleClass().add("path-bar");
         return pathBar;
     }
 
@@ -175,10 +267,11 @@ public class MainView {
         pathContainer.getChildren().clear();
 
         Label pcLabel = new Label("Main Screen");
-        pcLabel.setStyle("-fx-text-fill: " + PRIMARY_COLOR + "; -fx-font-size: 13px; -fx-font-weight: bold;");
-        pcLabel.setOnMouseEntered(e -> pcLabel.setStyle("-fx-text-fill: " + ACCENT_COLOR + "; -fx-font-size: 13px; -fx-font-weight: bold; -fx-underline: true;"));
-        pcLabel.setOnMouseExited(e -> pcLabel.setStyle("-fx-text-fill: " + PRIMARY_COLOR + "; -fx-font-size: 13px; -fx-font-weight: bold; -fx-underline: false;"));
-        pcLabel.setOnMouseClicked(e -> showRootFolders());
+        pcLabel.getStyleClass().add("crumb");
+        pcLabel.setOnMouseClicked(e -> {
+            forwardStack.clear();
+            showRootFolders();
+        });
         pathContainer.getChildren().add(pcLabel);
 
         if (currentFolder == null) return;
@@ -203,108 +296,479 @@ public class MainView {
 
         for (File folder : pathHierarchy) {
             Label separator = new Label(" > ");
-            separator.setStyle("-fx-text-fill: #666; -fx-font-size: 13px;");
+            separator.getStyleClass().add("crumb-separator");
             pathContainer.getChildren().add(separator);
 
             Label pathSegment = new Label(folder.getName());
-            pathSegment.setStyle("-fx-text-fill: " + PRIMARY_COLOR + "; -fx-font-size: 13px; -fx-font-weight: bold;");
-            pathSegment.setOnMouseEntered(e -> {
-                pathSegment.setStyle("-fx-text-fill: " + ACCENT_COLOR + "; -fx-font-size: 13px; -fx-font-weight: bold; -fx-underline: true;");
-                pathSegment.setCursor(javafx.scene.Cursor.HAND);
-            });
-            pathSegment.setOnMouseExited(e -> {
-                pathSegment.setStyle("-fx-text-fill: " + PRIMARY_COLOR + "; -fx-font-size: 13px; -fx-font-weight: bold; -fx-underline: false;");
-            });
-            pathSegment.setOnMouseClicked(e -> showFolderContents(folder));
+            pathSegment.getStyleClass().add("crumb");
+            pathSegment.setOnMouseClicked(e -> openFolder(folder));
             pathContainer.getChildren().add(pathSegment);
         }
     }
 
     private void sortFiles(String sortBy) {
-        List<FileItem> allItems = collectCurrentItems();
+        if (pager != null) {
+            // Sorting a paged folder means sorting all of it; that only happens on "Sort all".
+            return;
+        }
+        if (listingPending) {
+            // The listing being loaded is shown in the current sort order anyway.
+            return;
+        }
+        showItems(collectCurrentItems(), sortBy);
+    }
+
+    private void showItems(List<FileItem> allItems, String sortBy) {
         contentPane.getChildren().clear();
+        listingModel = null;
+
+        if (allItems.isEmpty() && currentFolder != null) {
+            showEmptyLabel();
+        }
 
         if ("extension".equals(sortBy)) {
-            Map<String, List<FileItem>> groupedFiles = allItems.stream()
-                    .filter(item -> !item.getFile().isDirectory())
-                    .collect(Collectors.groupingBy(item -> {
-                        String ext = item.getExtension().toLowerCase();
-                        if (ext.matches("jpg|jpeg|png|gif|bmp")) return "Images";
-                        if (ext.matches("mp4|avi|mov|mkv|flv")) return "Videos";
-                        if (ext.matches("mp3|wav|ogg|aac")) return "Audio";
-                        if (ext.equals("pdf")) return "PDFs";
-                        if (ext.matches("doc|docx|txt|rtf")) return "Documents";
-                        return "Other Files";
-                    }));
-
-            List<FileItem> folders = allItems.stream()
-                    .filter(item -> item.getFile().isDirectory())
-                    .sorted((a, b) -> isDescending ?
-                            b.getName().compareToIgnoreCase(a.getName()) :
-                            a.getName().compareToIgnoreCase(b.getName()))
-                    .collect(Collectors.toList());
+            showExtensionGroups(allItems, item -> createFolderCard(item.getFile(), true));
+        } else {
+            if (sortBy.equals("size")) {
+                // Folders start at their cached or remembered size (or unknown) and are
+                // moved by updateSize() as their measurements come in.
+                for (FileItem item : allItems) {
+                    if (item.isDirectory()) {
+                        Long size = sizeEngine.getCachedSize(item.getFile());
+                        if (size == null) {
+                            size = folderManager.getLastKnownSize(item.getFile());
+                        }
+                        item.setSize(size != null ? size : -1);
+                    }
+                }
+            }
 
-            for (FileItem item : folders) {
-                contentPane.getChildren().add(createFolderCard(item.getFile(), true));
+            listingModel = createListingModel(sortBy, allItems);
+            for (FileItem item : listingModel.getItems()) {
+                contentPane.getChildren().add(createItemCard(item));
+            }
+        }
+    }
+
+    private void showExtensionGroups(List<FileItem> allItems, Function<FileItem, HBox> folderCard) {
+        Map<String, List<FileItem>> groupedFiles = allItems.stream()
+                .filter(item -> !item.isDirectory())
+                .collect(Collectors.groupingBy(item -> item.getCategory().getLabel()));
+
+        List<FileItem> folders = allItems.stream()
+                .filter(FileItem::isDirectory)
+                .sorted((a, b) -> isDescending ?
+                        b.getName().compareToIgnoreCase(a.getName()) :
+                        a.getName().compareToIgnoreCase(b.getName()))
+                .collect(Collectors.toList());
+
+        for (FileItem item : folders) {
+            contentPane.getChildren().add(folderCard.apply(item));
+        }
+
+        for (Map.Entry<String, List<FileItem>> entry : groupedFiles.entrySet()) {
+            List<FileItem> filesInGroup = entry.getValue();
+            Sorter.mergeSort(filesInGroup, "extension");
+            if (isDescending) Collections.reverse(filesInGroup);
+        }
+
+        groupedFiles.entrySet().stream()
+                .sorted((e1, e2) -> isDescending ?
+                        e2.getKey().compareToIgnoreCase(e1.getKey()) :
+                        e1.getKey().compareToIgnoreCase(e2.getKey()))
+                .forEach(entry -> {
+                    if (!entry.getValue().isEmpty()) {
+                        contentPane.getChildren().add(
+                                createVirtualFolderCard(entry.getKey(), entry.getValue()));
+                    }
+                });
+    }
+
+    private ListingModel createListingModel(String sortBy, List<FileItem> items) {
+        ListingModel model = new ListingModel(Sorter.comparator(sortBy, isDescending));
+        model.setItems(items);
+        model.setListener(new ListingModel.Listener() {
+            @Override
+            public void inserted(int index, FileItem item) {
+                if (model.size() == 1) {
+                    contentPane.getChildren().clear();
+                }
+                incrementalListingChange = true;
+                try {
+                    selection.inserted(index);
+                    contentPane.getChildren().add(index, createItemCard(item));
+                } finally {
+                    incrementalListingChange = false;
+                }
+                cardsShifted();
             }
 
-            for (Map.Entry<String, List<FileItem>> entry : groupedFiles.entrySet()) {
-                List<FileItem> filesInGroup = entry.getValue();
-                Sorter.mergeSort(filesInGroup, sortBy);
-                if (isDescending) Collections.reverse(filesInGroup);
+            @Override
+            public void removed(int index, FileItem item) {
+                incrementalListingChange = true;
+                try {
+                    boolean wasSelected = selection.isSelected(index);
+                    selection.removed(index);
+                    contentPane.getChildren().remove(index);
+                    if (wasSelected) {
+                        updateSelectionSummary(true);
+                    }
+                } finally {
+                    incrementalListingChange = false;
+                }
+                cardsShifted();
+                if (model.size() == 0) {
+                    showEmptyLabel();
+                }
             }
 
-            groupedFiles.entrySet().stream()
-                    .sorted((e1, e2) -> isDescending ?
-                            e2.getKey().compareToIgnoreCase(e1.getKey()) :
-                            e1.getKey().compareToIgnoreCase(e2.getKey()))
-                    .forEach(entry -> {
-                        if (!entry.getValue().isEmpty()) {
-                            contentPane.getChildren().add(
-                                    createVirtualFolderCard(entry.getKey(), entry.getValue()));
-                        }
-                    });
+            @Override
+            public void moved(int from, int to, FileItem item) {
+                incrementalListingChange = true;
+                try {
+                    selection.moved(from, to);
+                    javafx.scene.Node card = contentPane.getChildren().remove(from);
+                    contentPane.getChildren().add(to, card);
+                } finally {
+                    incrementalListingChange = false;
+                }
+                cardsShifted();
+            }
+        });
+        return model;
+    }
+
+    // Cards moved into view by an insert, removal or move may have label updates parked.
+    // Their bounds are only current after the next layout, so recheck them then.
+    private void cardsShifted() {
+        if (!recheckAfterLayout) {
+            recheckAfterLayout = true;
+            contentPane.requestLayout();
+        }
+    }
+
+    private HBox createItemCard(FileItem item) {
+        return item.isDirectory() ? createFolderCard(item.getFile(), true) : createFileCard(item.getFile());
+    }
+
+    private void showEmptyLabel() {
+        Label emptyLabel = new Label("This folder is empty");
+        emptyLabel.getStyleClass().add("empty-label");
+        contentPane.getChildren().add(emptyLabel);
+    }
+
+    private void watchCurrentFolder() {
+        stopWatching.run();
+        File folder = currentFolder;
+        stopWatching = folder == null ? () -> { } : services.getFolderWatcher().watch(folder, changes -> {
+            // Runs on the watcher thread: stat each changed entry once, then apply on the FX thread.
+            Set<File> changed = new LinkedHashSet<>();
+            boolean lost = false;
+            for (FolderWatcher.Change change : changes) {
+                if (change.getFile() == null) {
+                    lost = true;
+                } else {
+                    changed.add(change.getFile());
+                }
+            }
+            List<File> removed = new ArrayList<>();
+            List<FileItem> updated = new ArrayList<>();
+            for (File file : changed) {
+                if (file.exists()) {
+                    updated.add(new FileItem(file));
+                } else {
+                    removed.add(file);
+                }
+            }
+            boolean relist = lost;
+            Platform.runLater(() -> applyFolderChanges(folder, removed, updated, relist));
+        });
+    }
 
+    private void applyFolderChanges(File folder, List<File> removed, List<FileItem> updated, boolean relist) {
+        if (!folder.equals(currentFolder) || isInVirtualFolder) {
+            return;
+        }
+        if (listingModel == null || relist) {
+            reloadCurrentFolder();
+            return;
+        }
+
+        listingCache.invalidate(folder);
+        for (File file : removed) {
+            listingModel.remove(file);
+        }
+        for (FileItem item : updated) {
+            if (!listingModel.contains(item.getFile())) {
+                listingModel.insert(item);
+            } else if (!item.isDirectory()) {
+                int index = listingModel.updateSize(item.getFile(), item.getSize());
+                HBox card = createFileCard(item.getFile());
+                card.pseudoClassStateChanged(SELECTED, selection.isSelected(index));
+                incrementalListingChange = true;
+                try {
+                    contentPane.getChildren().set(index, card);
+                } finally {
+                    incrementalListingChange = false;
+                }
+                if (selection.isSelected(index)) {
+                    updateSelectionSummary(true);
+                }
+            }
+        }
+    }
+
+    private void reloadCurrentFolder() {
+        File folder = currentFolder;
+        double scrollOffset = scrollPane.getVvalue();
+        listingCache.invalidate(folder);
+        currentFolder = null;
+        showFolderContents(folder, scrollOffset);
+    }
+
+
+
+    private HBox createSelectionBar() {
+        selectionLabel = new Label();
+        selectionLabel.getStyleClass().add("selection-label");
+        HBox.setHgrow(selectionLabel, Priority.ALWAYS);
+        selectionLabel.setMaxWidth(Double.MAX_VALUE);
+
+        Button clearButton = new Button("Clear");
+        styleButton(clearButton, false);
+        clearButton.setOnAction(e -> clearSelection());
+
+        HBox bar = new HBox(selectionLabel, clearButton);
+        bar.getStyleClass().add("selection-bar");
+        mainLayout.setBottom(bar);
+        return bar;
+    }
+
+    private void onCardClicked(javafx.scene.Node card, MouseEvent e) {
+        currentCards();
+        Object row = card.getProperties().get(ROW_INDEX);
+        if (!(row instanceof Integer)) return;
+        int index = (Integer) row;
+
+        if (e.isShortcutDown()) {
+            selection.toggle(index);
+        } else if (e.isShiftDown()) {
+            selection.selectRange(index, visibleCards());
         } else {
-            List<FileItem> folders = allItems.stream()
-                    .filter(item -> item.getFile().isDirectory())
-                    .collect(Collectors.toList());
+            selection.select(index);
+        }
+        refreshSelection();
+    }
 
-            List<FileItem> files = allItems.stream()
-                    .filter(item -> !item.getFile().isDirectory())
-                    .collect(Collectors.toList());
+    private BitSet visibleCards() {
+        currentCards();
+        return filterField.getText().isEmpty() ? null : cardFilter.apply(filterField.getText());
+    }
 
-            if (sortBy.equals("size")) {
-                for (FileItem item : folders) {
-                    long size = calculateFolderSize(item.getFile());
-                    item.setSize(size);
+    private void selectAll() {
+        if (pager != null) return;
+        List<javafx.scene.Node> cards = currentCards();
+        BitSet visible = visibleCards();
+        if (visible == null) {
+            visible = new BitSet(cards.size());
+            visible.set(0, cards.size());
+        }
+        selection.add(visible);
+        refreshSelection();
+    }
+
+    private void selectByPattern() {
+        TextInputDialog dialog = new TextInputDialog("*.");
+        dialog.setTitle("Select by pattern");
+        dialog.setHeaderText(null);
+        dialog.setContentText("Name or pattern (*, ?):");
+        dialog.showAndWait().ifPresent(pattern -> {
+            ListingFilter<javafx.scene.Node> patternFilter = new ListingFilter<>(MainView::cardName);
+            patternFilter.setItems(currentCards());
+            BitSet matches = patternFilter.apply(pattern);
+            BitSet visible = visibleCards();
+            if (visible != null) {
+                matches.and(visible);
+            }
+            selection.add(matches);
+            refreshSelection();
+        });
+    }
+
+    private void clearSelection() {
+        selection.clear();
+        refreshSelection();
+    }
+
+    private void refreshSelection() {
+        List<javafx.scene.Node> cards = currentCards();
+        BitSet changes = selection.takeChanges();
+        for (int i = changes.nextSetBit(0); i >= 0 && i < cards.size(); i = changes.nextSetBit(i + 1)) {
+            cards.get(i).pseudoClassStateChanged(SELECTED, selection.isSelected(i));
+        }
+        updateSelectionSummary(true);
+    }
+
+    private void updateSelectionSummary(boolean computeMissing) {
+        long generation = ++selectionGeneration;
+        if (selection.isEmpty()) {
+            if (selectionBar != null) {
+                selectionBar.setVisible(false);
+                selectionBar.setManaged(false);
+            }
+            return;
+        }
+        if (selectionBar == null) {
+            selectionBar = createSelectionBar();
+        }
+        selectionBar.setVisible(true);
+        selectionBar.setManaged(true);
+
+        currentCards();
+        Object[] data = cardData;
+        BitSet selected = selection.getSelected();
+        listingExecutor.submit(() -> {
+            long bytes = 0;
+            int files = 0;
+            int folders = 0;
+            List<File> missing = new ArrayList<>();
+            for (int i = selected.nextSetBit(0); i >= 0 && i < data.length; i = selected.nextSetBit(i + 1)) {
+                Object item = data[i];
+                if (item instanceof File) {
+                    folders++;
+                    Long size = sizeEngine.getCachedSize((File) item);
+                    if (size == null) {
+                        missing.add((File) item);
+                    } else if (size > 0) {
+                        bytes += size;
+                    }
+                } else if (item instanceof FileItem) {
+                    files++;
+                    bytes += Math.max(0, ((FileItem) item).getSize());
+                } else if (item instanceof ArchiveEntry) {
+                    if (((ArchiveEntry) item).isDirectory()) folders++;
+                    else files++;
+                    bytes += ((ArchiveEntry) item).getSize();
                 }
             }
 
-            Sorter.mergeSort(folders, sortBy);
-            if (isDescending) Collections.reverse(folders);
+            StringBuilder text = new StringBuilder();
+            text.append(selected.cardinality()).append(" selected • ")
+                    .append(folders).append(folders == 1 ? " folder, " : " folders, ")
+                    .append(files).append(files == 1 ? " file • " : " files • ")
+                    .append(formatFileSize(bytes));
+            if (!missing.isEmpty()) {
+                text.append(computeMissing ? " (calculating " : " (unknown: ")
+                        .append(missing.size()).append(missing.size() == 1 ? " folder)" : " folders)");
+            }
 
-            Sorter.mergeSort(files, sortBy);
-            if (isDescending) Collections.reverse(files);
+            Platform.runLater(() -> {
+                if (generation == selectionGeneration) {
+                    selectionLabel.setText(text.toString());
+                }
+            });
 
-            for (FileItem item : folders) {
-                contentPane.getChildren().add(createFolderCard(item.getFile(), true));
+            if (computeMissing && !missing.isEmpty()) {
+                CompletableFuture.allOf(missing.stream().map(sizeEngine::sizeOf).toArray(CompletableFuture[]::new))
+                        .thenRun(() -> Platform.runLater(() -> {
+                            if (generation == selectionGeneration) {
+                                updateSelectionSummary(false);
+                            }
+                        }));
             }
+        });
+    }
 
-            for (FileItem item : files) {
-                contentPane.getChildren().add(createFileCard(item.getFile()));
+    public void dispose() {
+        listingGeneration++;
+        folderManager.removeListener(rootsListener);
+        stopWatching.run();
+        closePager();
+        filterDebounce.stop();
+        uiUpdates.stop();
+        leaveVirtualFolder();
+    }
+
+    public void setOnFolderChanged(Consumer<File> onFolderChanged) {
+        this.onFolderChanged = onFolderChanged;
+    }
+
+    public File getCurrentFolder() {
+        return currentFolder;
+    }
+
+    private List<javafx.scene.Node> currentCards() {
+        if (filterCardsDirty) {
+            filterCards = contentPane.getChildren().stream()
+                    .filter(node -> cardName(node) != null)
+                    .collect(Collectors.toList());
+            cardFilter.setItems(filterCards);
+            cardData = filterCards.stream().map(javafx.scene.Node::getUserData).toArray();
+            for (int i = 0; i < filterCards.size(); i++) {
+                filterCards.get(i).getProperties().put(ROW_INDEX, i);
             }
+            filterCardsDirty = false;
         }
+        return filterCards;
     }
 
+    private void applyFilter() {
+        List<javafx.scene.Node> cards = currentCards();
+        String query = filterField.getText();
+        long generation = ++filterGeneration;
 
+        if (cards.size() < BACKGROUND_FILTER_THRESHOLD) {
+            showFilterResult(cards, cardFilter.apply(query));
+        } else {
+            listingExecutor.submit(() -> {
+                BitSet matches = cardFilter.apply(query);
+                Platform.runLater(() -> {
+                    if (generation == filterGeneration) {
+                        showFilterResult(cards, matches);
+                    }
+                });
+            });
+        }
+    }
+
+    private void showFilterResult(List<javafx.scene.Node> cards, BitSet matches) {
+        for (int i = 0; i < cards.size(); i++) {
+            javafx.scene.Node card = cards.get(i);
+            boolean show = matches.get(i);
+            if (card.isVisible() != show) {
+                card.setVisible(show);
+                card.setManaged(show);
+            }
+        }
+        uiUpdates.viewportChanged();
+    }
 
-    public void shutdown() {
-        executor.shutdownNow();
+    private boolean isOnScreen(javafx.scene.Node target) {
+        // Updates may target a label inside a card; measure the card itself.
+        javafx.scene.Node card = target;
+        while (card.getParent() != null && card.getParent() != contentPane) {
+            card = card.getParent();
+        }
+        if (!card.isVisible()) return false;
+        Bounds viewport = scrollPane.getViewportBounds();
+        double margin = viewport.getHeight() / 2;
+        double top = -viewport.getMinY() - margin;
+        double bottom = -viewport.getMinY() + viewport.getHeight() + margin;
+        Bounds bounds = card.getBoundsInParent();
+        return bounds.getMaxY() >= top && bounds.getMinY() <= bottom;
+    }
+
+    private static String cardName(javafx.scene.Node node) {
+        Object userData = node.getUserData();
+        if (userData instanceof File) return ((File) userData).getName();
+        if (userData instanceof FileItem) return ((FileItem) userData).getName();
+        if (userData instanceof ArchiveEntry) return ((ArchiveEntry) userData).getName();
+        return null;
     }
 
     private void showVirtualFolderContents(String folderName, List<FileItem> files) {
         isInVirtualFolder = true;
+        listingModel = null;
 
         originalItemsCache = collectCurrentItems();
 
@@ -324,13 +788,9 @@ public class MainView {
         contentPane.getChildren().clear();
 
         Button backButton = new Button("← Back to " + folderName);
-        backButton.setStyle("-fx-background-color: #2196F3; -fx-text-fill: white; -fx-font-weight: bold;");
+        backButton.getStyleClass().add("virtual-back-button");
         backButton.setOnAction(e -> {
-            isInVirtualFolder = false;
-
-            sortComboBox.setDisable(false);
-            sortOrderCheckBox.setDisable(false);
-            sortOrderLabel.setDisable(false);
+            leaveVirtualFolder();
 
             if (originalItemsCache != null) {
                 contentPane.getChildren().clear();
@@ -358,80 +818,197 @@ public class MainView {
     }
 
 
-    private StackPane createVirtualFolderCard(String folderName, List<FileItem> files) {
-        StackPane card = new StackPane();
+    private void leaveVirtualFolder() {
+        isInVirtualFolder = false;
+        archiveGeneration++;
+        while (!archiveStack.isEmpty()) {
+            closeQuietly(archiveStack.pop().index);
+        }
+
+        sortComboBox.setDisable(false);
+        sortOrderCheckBox.setDisable(false);
+        sortOrderLabel.setDisable(false);
+    }
+
+    private HBox createVirtualFolderCard(String folderName, List<FileItem> files) {
+        HBox card = createCard(folderName, "\uD83D\uDCC2", files.size() + " files", "card-size"); // 📂
+        card.getStyleClass().addAll("folder-card", "virtual-card");
         card.setUserData(files);
-        card.setPrefWidth(720);
-        card.setMinWidth(720);
-        card.setMaxWidth(720);
-        card.setPrefHeight(60);
+        card.setOnMouseClicked(e -> showVirtualFolderContents(folderName, files));
+        return card;
+    }
 
-        Rectangle bg = new Rectangle();
-        bg.widthProperty().bind(card.widthProperty().subtract(10));
-        bg.setHeight(60);
-        bg.setArcHeight(10);
-        bg.setArcWidth(10);
-        bg.setFill(Color.web("#e3f2fd"));
-        bg.setStroke(Color.web("#2196F3"));
-        bg.setStrokeWidth(1.2);
+    private HBox createCard(String name, String iconText, String info, String infoStyleClass) {
+        Label icon = new Label(iconText);
+        icon.getStyleClass().add("card-icon");
 
-        HBox content = new HBox(15);
-        content.setPadding(new Insets(8, 15, 8, 15));
-        content.setAlignment(Pos.CENTER_LEFT);
-        content.setMaxWidth(Double.MAX_VALUE);
+        Label nameLabel = new Label(name);
+        nameLabel.getStyleClass().add("card-name");
+
+        Label infoLabel = new Label(info);
+        infoLabel.getStyleClass().add(infoStyleClass);
+
+        VBox details = new VBox(nameLabel, infoLabel);
+        details.getStyleClass().add("card-details");
+        HBox.setHgrow(details, Priority.ALWAYS);
+
+        HBox card = new HBox(icon, details);
+        card.getStyleClass().add("card");
+        card.addEventHandler(MouseEvent.MOUSE_CLICKED, e -> {
+            if (e.getButton() == MouseButton.PRIMARY && e.getClickCount() == 1) {
+                onCardClicked(card, e);
+            }
+        });
+        return card;
+    }
 
-        Label icon = new Label("📂");
-        icon.setStyle("-fx-font-size: 20;");
+    private static class ArchiveLocation {
+        final ArchiveIndex index;
+        final ArchiveEntry entry;
 
-        VBox details = new VBox(3);
-        details.setAlignment(Pos.CENTER_LEFT);
+        ArchiveLocation(ArchiveIndex index, ArchiveEntry entry) {
+            this.index = index;
+            this.entry = entry;
+        }
+    }
 
-        Label nameLabel = new Label(folderName);
-        nameLabel.setStyle("-fx-font-weight: bold; -fx-font-size: 13px; -fx-text-fill: #2196F3;");
+    private void openArchive(File archive) {
+        saveViewState();
+        isInVirtualFolder = true;
+        listingModel = null;
+        sortComboBox.setDisable(true);
+        sortOrderCheckBox.setDisable(true);
+        sortOrderLabel.setDisable(true);
 
-        Label countLabel = new Label(files.size() + " files");
-        countLabel.setStyle("-fx-font-size: 12px; -fx-text-fill: #666;");
+        contentPane.getChildren().clear();
+        Label loadingLabel = new Label("Reading " + archive.getName() + "...");
+        loadingLabel.getStyleClass().add("empty-label");
+        contentPane.getChildren().add(loadingLabel);
 
-        details.getChildren().addAll(nameLabel, countLabel);
-        content.getChildren().addAll(icon, details);
-        card.getChildren().addAll(bg, content);
+        loadArchive(() -> ArchiveIndex.open(archive.toPath()));
+    }
 
+    private interface ArchiveLoader {
+        ArchiveIndex load() throws IOException;
+    }
 
-        card.setOnMouseEntered(e -> {
-            bg.setFill(Color.web("#d0e3fa"));
-            bg.setEffect(new DropShadow(5, Color.web("#2196F3", 0.2)));
+    private void loadArchive(ArchiveLoader loader) {
+        long generation = archiveGeneration;
+        listingExecutor.submit(() -> {
+            try {
+                ArchiveIndex index = loader.load();
+                Platform.runLater(() -> {
+                    if (generation != archiveGeneration || !isInVirtualFolder) {
+                        closeQuietly(index);
+                        return;
+                    }
+                    archiveStack.push(new ArchiveLocation(index, index.getRoot()));
+                    showArchiveLocation();
+                });
+            } catch (IOException | RuntimeException e) {
+                Platform.runLater(() -> {
+                    if (generation != archiveGeneration) return;
+                    showAlert("Error", "Could not read archive: " + e.getMessage());
+                    if (archiveStack.isEmpty()) {
+                        showFolderContents(currentFolder);
+                    } else {
+                        showArchiveLocation();
+                    }
+                });
+            }
         });
+    }
 
-        card.setOnMouseExited(e -> {
-            bg.setFill(Color.web("#e3f2fd"));
-            bg.setEffect(null);
-        });
+    private void showArchiveLocation() {
+        ArchiveLocation location = archiveStack.peek();
+        contentPane.getChildren().clear();
 
-        card.setOnMouseClicked(e -> showVirtualFolderContents(folderName, files));
+        Iterator<ArchiveLocation> path = archiveStack.iterator();
+        path.next();
+        String parentName = path.hasNext() ? path.next().entry.getName() : currentFolder.getName();
+        Button archiveBackButton = new Button("← Back to " + parentName);
+        archiveBackButton.getStyleClass().add("virtual-back-button");
+        archiveBackButton.setOnAction(e -> archiveBack());
+        contentPane.getChildren().add(archiveBackButton);
+
+        List<ArchiveEntry> entries = new ArrayList<>(location.entry.getChildren());
+        entries.sort((a, b) -> {
+            if (a.isDirectory() != b.isDirectory()) return a.isDirectory() ? -1 : 1;
+            return a.getName().compareToIgnoreCase(b.getName());
+        });
 
-        return card;
+        if (entries.isEmpty()) {
+            Label emptyLabel = new Label("This folder is empty");
+            emptyLabel.getStyleClass().add("empty-label");
+            contentPane.getChildren().add(emptyLabel);
+        }
+        for (ArchiveEntry entry : entries) {
+            contentPane.getChildren().add(createArchiveEntryCard(location.index, entry));
+        }
     }
 
-    private void styleButton(Button button, String bgColor) {
-        String hoverColor = bgColor.equals(ACCENT_COLOR) ? ACCENT_DARK : PRIMARY_LIGHT;
-        button.setStyle("-fx-background-color: " + bgColor + "; " +
-                "-fx-text-fill: white; " +
-                "-fx-font-weight: bold; " +
-                "-fx-font-size: 12px; " +
-                "-fx-background-radius: 4; " +
-                "-fx-padding: 8 15; " +
-                "-fx-cursor: hand;");
+    private void archiveBack() {
+        ArchiveLocation left = archiveStack.pop();
+        if (archiveStack.isEmpty() || archiveStack.peek().index != left.index) {
+            closeQuietly(left.index);
+        }
+        if (archiveStack.isEmpty()) {
+            showFolderContents(currentFolder);
+        } else {
+            showArchiveLocation();
+        }
+    }
 
-        button.setOnMouseEntered(e -> {
-            button.setStyle(button.getStyle() + "-fx-background-color: " + hoverColor + ";");
-            button.setEffect(new DropShadow(5, Color.gray(0, 0.3)));
+    private HBox createArchiveEntryCard(ArchiveIndex index, ArchiveEntry entry) {
+        boolean nestedArchive = !entry.isDirectory() && ArchiveIndex.isArchive(entry.getName());
+        String iconText = entry.isDirectory() ? FOLDER_ICON
+                : nestedArchive ? ARCHIVE_ICON
+                : FileCategory.of(FileCategory.extensionOf(entry.getName())).getIcon();
+        String info = entry.isDirectory()
+                ? entry.getFileCount() + " files • " + formatFileSize(entry.getSize())
+                : FileCategory.extensionOf(entry.getName()).toUpperCase() + " • " + formatFileSize(entry.getSize());
+
+        HBox card = createCard(entry.getName(), iconText, info, "card-info");
+        card.getStyleClass().add(entry.isDirectory() ? "virtual-card" : "file-card");
+        card.setUserData(entry);
+        card.setOnMouseClicked(e -> {
+            if (e.getClickCount() != 2) return;
+            if (entry.isDirectory()) {
+                archiveStack.push(new ArchiveLocation(index, entry));
+                showArchiveLocation();
+            } else if (nestedArchive) {
+                loadArchive(() -> index.openNested(entry));
+            } else {
+                extractAndOpen(index, entry);
+            }
         });
-        button.setOnMouseExited(e -> {
-            button.setStyle(button.getStyle().replace(hoverColor, bgColor));
-            button.setEffect(null);
+
+        return card;
+    }
+
+    private void extractAndOpen(ArchiveIndex index, ArchiveEntry entry) {
+        listingExecutor.submit(() -> {
+            try {
+                File extracted = index.extract(entry).toFile();
+                Platform.runLater(() -> openFile(extracted));
+            } catch (IOException | RuntimeException e) {
+                Platform.runLater(() -> showAlert("Error", "Could not extract " + entry.getName() + ": " + e.getMessage()));
+            }
         });
-        button.setOnMousePressed(e -> button.setEffect(new InnerShadow(3, Color.gray(0, 0.3))));
-        button.setOnMouseReleased(e -> button.setEffect(new DropShadow(5, Color.gray(0, 0.3))));
+    }
+
+    private static void closeQuietly(ArchiveIndex index) {
+        try {
+            index.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    private void styleButton(Button button, boolean accent) {
+        button.getStyleClass().add("toolbar-button");
+        if (accent) {
+            button.getStyleClass().add("accent");
+        }
     }
 
     private void styleComboBox(ComboBox<String> comboBox) {
@@ -449,21 +1026,32 @@ public class MainView {
 
         if (selectedFolder != null) {
             folderManager.addFolder(selectedFolder);
-            showRootFolders();
         }
     }
 
     private void showRootFolders() {
+        saveViewState();
+        leaveVirtualFolder();
+        currentFolder = null;
+        listingGeneration++;
+        listingPending = false;
+        listingModel = null;
+        closePager();
+        stopWatching.run();
+        stopWatching = () -> { };
+        onFolderChanged.accept(null);
+        filterField.clear();
         contentPane.getChildren().clear();
         addFolderButton.setVisible(true);
         navigationStack.clear();
         backButton.setDisable(true);
+        forwardButton.setDisable(forwardStack.isEmpty());
         updatePathBreadcrumbs(null);
 
         LinkedList<File> folders = folderManager.getFolders();
         if (folders.isEmpty()) {
             Label emptyLabel = new Label("No folders added yet. Click 'Add Folder' to start.");
-            emptyLabel.setStyle("-fx-text-fill: #666; -fx-font-size: 13px;");
+            emptyLabel.getStyleClass().add("empty-label");
             contentPane.getChildren().add(emptyLabel);
         } else {
             List<FileItem> folderItems = folders.stream()
@@ -481,59 +1069,377 @@ public class MainView {
         }
     }
 
+    private void openFolder(File folder) {
+        forwardStack.clear();
+        showFolderContents(folder);
+    }
+
     private void showFolderContents(File folder) {
+        showFolderContents(folder, -1);
+    }
+
+    private void showFolderContents(File folder, double scrollOffset) {
+        saveViewState();
+        leaveVirtualFolder();
+        currentFolder = folder;
+        listingGeneration++;
+        listingPending = false;
+        listingModel = null;
+        closePager();
+        onFolderChanged.accept(folder);
+        filterField.clear();
         contentPane.getChildren().clear();
         addFolderButton.setVisible(false);
-        backButton.setDisable(navigationStack.isEmpty());
 
         if (!navigationStack.isEmpty() && !navigationStack.peek().equals(folder)) {
             navigationStack.push(folder);
         } else if (navigationStack.isEmpty()) {
             navigationStack.push(folder);
         }
+        backButton.setDisable(navigationStack.isEmpty());
+        forwardButton.setDisable(forwardStack.isEmpty());
 
         updatePathBreadcrumbs(folder);
 
-        File[] files = folder.listFiles();
-        if (files != null && files.length > 0) {
-            for (File file : files) {
-                if (file.isDirectory()) {
-                    contentPane.getChildren().add(createFolderCard(file, true));
+        ViewState cached = viewStates.remove(folder);
+        if (cached != null) {
+            restoreViewState(cached);
+            revalidateViewState(cached);
+            watchCurrentFolder();
+            prefetchLikelyNext(folder, null);
+            rememberOpened(folder);
+            return;
+        }
+
+        File[] cachedFiles = listingCache.getIfFresh(folder);
+        if (cachedFiles != null) {
+            showListing(folder, cachedFiles, scrollOffset);
+            return;
+        }
+
+        // Listing can take a while on a large or slow folder, so it runs on the listing worker.
+        stopWatching.run();
+        stopWatching = () -> { };
+        listingPending = true;
+        Label loadingLabel = new Label("Loading...");
+        loadingLabel.getStyleClass().add("empty-label");
+        contentPane.getChildren().add(loadingLabel);
+        long generation = listingGeneration;
+        listingExecutor.submit(() -> {
+            File[] files = listingCache.listUpTo(folder, DirectoryPager.PAGED_THRESHOLD);
+            // Null is either too many entries or an unreadable folder; only the first is paged.
+            boolean paged = files == null
+                    && DirectoryPager.countUpTo(folder.toPath(), DirectoryPager.PAGED_THRESHOLD) > DirectoryPager.PAGED_THRESHOLD;
+            Platform.runLater(() -> {
+                if (generation != listingGeneration) return;
+                listingPending = false;
+                if (paged) {
+                    showPagedFolder(folder);
+                } else {
+                    showListing(folder, files, scrollOffset);
                 }
-            }
+            });
+        });
+    }
+
+    private void showListing(File folder, File[] files, double scrollOffset) {
+        if (files != null && files.length > DirectoryPager.PAGED_THRESHOLD) {
+            showPagedFolder(folder);
+            return;
+        }
 
+        List<FileItem> items = new ArrayList<>();
+        if (files != null) {
             for (File file : files) {
-                if (!file.isDirectory()) {
-                    contentPane.getChildren().add(createFileCard(file));
+                items.add(new FileItem(file));
+            }
+        }
+        showItems(items, currentSortBy());
+        watchCurrentFolder();
+        if (scrollOffset >= 0) {
+            scrollPane.layout();
+            scrollPane.setVvalue(scrollOffset);
+        }
+
+        prefetchLikelyNext(folder, files);
+        rememberOpened(folder);
+    }
+
+    private void showPagedFolder(File folder) {
+        stopWatching.run();
+        stopWatching = () -> { };
+        contentPane.getChildren().clear();
+        pager = new DirectoryPager(folder.toPath(), PAGE_SIZE * 4);
+        setPagedControls(true);
+        showPage(0);
+        rememberOpened(folder);
+    }
+
+    private void showPage(long offset) {
+        DirectoryPager folderPager = pager;
+        long generation = ++pageGeneration;
+        listingExecutor.submit(() -> {
+            try {
+                List<FileItem> items = folderPager.page(offset, PAGE_SIZE);
+                long known = folderPager.getKnownCount();
+                boolean complete = folderPager.isComplete();
+                Platform.runLater(() -> {
+                    if (generation == pageGeneration && pager == folderPager) {
+                        renderPage(offset, items, known, complete);
+                    }
+                });
+            } catch (IOException | RuntimeException e) {
+                Platform.runLater(() -> showAlert("Error", "Could not read folder: " + e.getMessage()));
+            }
+        });
+    }
+
+    private void renderPage(long offset, List<FileItem> items, long known, boolean complete) {
+        if (items.isEmpty() && offset > 0) {
+            if (complete) {
+                showPage(Math.max(0, (known - 1) / PAGE_SIZE * PAGE_SIZE));
+            }
+            return;
+        }
+
+        pageOffset = offset;
+        if (pagerBar == null) {
+            pagerBar = createPagerBar();
+        }
+        pageLabel.setText(String.format("Entries %,d–%,d of %,d%s • %s", offset + 1, offset + items.size(), known,
+                complete ? "" : "+", pager.isSorted() ? "sorted by " + pager.getSortedBy() : "directory order"));
+
+        contentPane.getChildren().clear();
+        contentPane.getChildren().add(pagerBar);
+        for (FileItem item : items) {
+            contentPane.getChildren().add(createItemCard(item));
+        }
+        scrollPane.setVvalue(0);
+    }
+
+    private HBox createPagerBar() {
+        Button previousButton = new Button("◀ Prev");
+        styleButton(previousButton, false);
+        previousButton.setOnAction(e -> showPage(Math.max(0, pageOffset - PAGE_SIZE)));
+
+        Button nextButton = new Button("Next ▶");
+        styleButton(nextButton, false);
+        nextButton.setOnAction(e -> showPage(pageOffset + PAGE_SIZE));
+
+        pageLabel = new Label();
+        pageLabel.getStyleClass().add("pager-label");
+        HBox.setHgrow(pageLabel, Priority.ALWAYS);
+        pageLabel.setMaxWidth(Double.MAX_VALUE);
+
+        TextField jumpField = new TextField();
+        jumpField.setPromptText("Go to # or name");
+        jumpField.setPrefWidth(130);
+        jumpField.getStyleClass().add("filter-field");
+        jumpField.setOnAction(e -> jumpTo(jumpField.getText().trim()));
+
+        Button sortAllButton = new Button("Sort all");
+        styleButton(sortAllButton, true);
+        sortAllButton.setOnAction(e -> sortPagedFolder());
+
+        HBox bar = new HBox(previousButton, nextButton, pageLabel, jumpField, sortAllButton);
+        bar.getStyleClass().add("pager-bar");
+        return bar;
+    }
+
+    private void jumpTo(String target) {
+        if (target.isEmpty()) return;
+        if (target.chars().allMatch(Character::isDigit)) {
+            try {
+                showPage(Math.max(0, Long.parseLong(target) - 1));
+            } catch (NumberFormatException ignored) {
+            }
+            return;
+        }
+
+        DirectoryPager folderPager = pager;
+        listingExecutor.submit(() -> {
+            try {
+                long position = folderPager.find(target);
+                Platform.runLater(() -> {
+                    if (pager != folderPager) return;
+                    if (position < 0) {
+                        showAlert("Not found", "No entry starts with \"" + target + "\".");
+                    } else {
+                        showPage(position);
+                    }
+                });
+            } catch (IOException | RuntimeException e) {
+                Platform.runLater(() -> showAlert("Error", "Could not read folder: " + e.getMessage()));
+            }
+        });
+    }
+
+    private void sortPagedFolder() {
+        DirectoryPager folderPager = pager;
+        String sortBy = currentSortBy();
+        boolean descending = isDescending;
+        pageLabel.setText("Sorting all entries by " + sortBy + "...");
+        services.getSortExecutor().submit(() -> {
+            try {
+                folderPager.sortAll(sortBy, descending);
+                Platform.runLater(() -> {
+                    if (pager == folderPager) showPage(0);
+                });
+            } catch (IOException | RuntimeException e) {
+                Platform.runLater(() -> showAlert("Error", "Could not sort folder: " + e.getMessage()));
+            }
+        });
+    }
+
+    // Filtering and selection only see the cards on screen, which in a paged folder is one
+    // page of it; rather than act on that page silently, they are off until the pager closes.
+    private void setPagedControls(boolean paged) {
+        filterField.setDisable(paged);
+        selectButton.setDisable(paged);
+        filterField.setPromptText(paged ? "Use \"Go to\" to find entries" : "Filter (name, *.ext)");
+    }
+
+    private void closePager() {
+        if (pager == null) return;
+        DirectoryPager closed = pager;
+        pager = null;
+        setPagedControls(false);
+        pagerBar = null;
+        pageGeneration++;
+        listingExecutor.submit(() -> {
+            try {
+                closed.close();
+            } catch (IOException ignored) {
+            }
+        });
+    }
+
+    private void rememberOpened(File folder) {
+        recentlyOpened.remove(folder);
+        recentlyOpened.addFirst(folder);
+        if (recentlyOpened.size() > SIBLING_PREFETCH_LIMIT) {
+            recentlyOpened.removeLast();
+        }
+    }
+
+    private void saveViewState() {
+        if (currentFolder == null || isInVirtualFolder || pager != null || listingPending) {
+            return;
+        }
+
+        List<FileItem> items = new ArrayList<>();
+        for (javafx.scene.Node node : contentPane.getChildren()) {
+            Object userData = node.getUserData();
+            if (userData instanceof File) {
+                FileItem item = new FileItem((File) userData);
+                Long size = sizeEngine.getCachedSize(item.getFile());
+                item.setSize(size != null ? size : -1);
+                items.add(item);
+            } else if (userData instanceof FileItem) {
+                items.add((FileItem) userData);
+            } else if (userData instanceof List) {
+                // An extension group card: keep its files so restore can regroup them.
+                for (Object item : (List<?>) userData) {
+                    if (item instanceof FileItem) {
+                        items.add((FileItem) item);
+                    }
                 }
             }
+        }
 
-            if (sortComboBox.getValue() != null) {
-                sortFiles(sortComboBox.getValue().replace("Sort by ", "").toLowerCase());
+        viewStates.put(currentFolder, new ViewState(currentFolder, items, currentSortBy(), isDescending,
+                scrollPane.getVvalue(), currentFolder.lastModified()));
+    }
+
+    private void restoreViewState(ViewState state) {
+        restoringViewState = true;
+        try {
+            for (String option : sortComboBox.getItems()) {
+                if (option.replace("Sort by ", "").toLowerCase().equals(state.getSortBy())) {
+                    sortComboBox.getSelectionModel().select(option);
+                }
             }
+            sortOrderCheckBox.setSelected(state.isDescending());
+        } finally {
+            restoringViewState = false;
+        }
+
+        List<FileItem> items = state.getItems();
+        if (items.isEmpty()) {
+            showEmptyLabel();
+        }
+        if ("extension".equals(state.getSortBy())) {
+            showExtensionGroups(items, item -> createFolderCard(item.getFile(), true, item.getSize()));
         } else {
-            Label emptyLabel = new Label("This folder is empty");
-            emptyLabel.setStyle("-fx-text-fill: #666; -fx-font-size: 13px;");
-            contentPane.getChildren().add(emptyLabel);
+            listingModel = createListingModel(state.getSortBy(), items);
+            for (FileItem item : listingModel.getItems()) {
+                if (item.getFile().isDirectory()) {
+                    contentPane.getChildren().add(createFolderCard(item.getFile(), true, item.getSize()));
+                } else {
+                    contentPane.getChildren().add(createFileCard(item.getFile()));
+                }
+            }
+        }
+
+        scrollPane.layout();
+        scrollPane.setVvalue(state.getScrollOffset());
+    }
+
+    private void revalidateViewState(ViewState state) {
+        File folder = state.getFolder();
+        listingExecutor.submit(() -> {
+            if (folder.lastModified() == state.getModified()) {
+                return;
+            }
+            Platform.runLater(() -> {
+                if (folder.equals(currentFolder) && !isInVirtualFolder) {
+                    reloadCurrentFolder();
+                }
+            });
+        });
+    }
+
+    private String currentSortBy() {
+        return sortComboBox.getValue() != null
+                ? sortComboBox.getValue().replace("Sort by ", "").toLowerCase()
+                : "name";
+    }
+
+    private void prefetchLikelyNext(File folder, File[] files) {
+        if (navigationStack.size() > 1) {
+            listingCache.prefetch(navigationStack.get(navigationStack.size() - 2));
+        }
+
+        // Coming back to a folder whose children were just browsed: the user is
+        // probably stepping through siblings, so warm the remaining ones.
+        boolean browsingChildren = recentlyOpened.stream().anyMatch(f -> folder.equals(f.getParentFile()));
+        if (!browsingChildren || files == null) {
+            return;
+        }
+        int prefetched = 0;
+        for (File file : files) {
+            if (prefetched >= SIBLING_PREFETCH_LIMIT) break;
+            if (file.isDirectory() && !recentlyOpened.contains(file)) {
+                listingCache.prefetch(file);
+                prefetched++;
+            }
         }
     }
     private List<FileItem> collectCurrentItems() {
         List<FileItem> items = new ArrayList<>();
         for (javafx.scene.Node node : contentPane.getChildren()) {
-            if (node instanceof StackPane) {
-                Object userData = ((StackPane) node).getUserData();
-                if (userData instanceof FileItem) {
-                    items.add((FileItem) userData);
-                } else if (userData instanceof File) {
-                    items.add(new FileItem((File) userData));
-                } else if (userData instanceof List) {
-                    // Handle virtual folder contents
-                    ((List<?>) userData).forEach(item -> {
-                        if (item instanceof FileItem) {
-                            items.add((FileItem) item);
-                        }
-                    });
-                }
+            Object userData = node.getUserData();
+            if (userData instanceof FileItem) {
+                items.add((FileItem) userData);
+            } else if (userData instanceof File) {
+                items.add(new FileItem((File) userData));
+            } else if (userData instanceof List) {
+                // Handle virtual folder contents
+                ((List<?>) userData).forEach(item -> {
+                    if (item instanceof FileItem) {
+                        items.add((FileItem) item);
+                    }
+                });
             }
         }
 
@@ -550,102 +1456,60 @@ public class MainView {
     }
 
 
-    private StackPane createFolderCard(File folder, boolean isRegular) {
-        StackPane card = new StackPane();
-        card.setUserData(folder);
-        card.setPrefWidth(720);
-        card.setMinWidth(720);
-        card.setMaxWidth(720);
-        card.setPrefHeight(70);
-
-        Rectangle bg = new Rectangle();
-        bg.widthProperty().bind(card.widthProperty().subtract(10));
-        bg.setHeight(70);
-        bg.setArcHeight(12);
-        bg.setArcWidth(12);
-        bg.setFill(Color.web(CARD_BG));
-        bg.setStroke(Color.web(isRegular ? PRIMARY_COLOR : "#aaa"));
-        bg.setStrokeWidth(isRegular ? 1.5 : 1.0);
-        bg.setEffect(new DropShadow(3, Color.gray(0, 0.1)));
-
-        HBox content = new HBox(15);
-        content.setPadding(new Insets(10, 15, 10, 15));
-        content.setAlignment(Pos.CENTER_LEFT);
-        content.setMaxWidth(Double.MAX_VALUE);
-
-        Label icon = new Label(FOLDER_ICON);
-        icon.setStyle("-fx-font-size: 24;");
-
-        VBox details = new VBox(5);
-        details.setAlignment(Pos.CENTER_LEFT);
-
-        Label nameLabel = new Label(folder.getName());
-        nameLabel.setStyle("-fx-font-weight: bold; -fx-font-size: 14px;");
-        nameLabel.setTextFill(Color.web(isRegular ? FOLDER_NAME_COLOR : "#555"));
-
-        Label sizeLabel = new Label("Calculating...");
-        sizeLabel.setStyle("-fx-font-size: 12px; -fx-text-fill: #666;");
-
-        ProgressIndicator progressIndicator = new ProgressIndicator();
-        progressIndicator.setPrefSize(14, 14);
-        progressIndicator.setProgress(ProgressIndicator.INDETERMINATE_PROGRESS);
-
-        HBox sizeBox = new HBox(5, progressIndicator, sizeLabel);
-        sizeBox.setAlignment(Pos.CENTER_LEFT);
+    private HBox createFolderCard(File folder, boolean isRegular) {
+        return createFolderCard(folder, isRegular, -1);
+    }
 
-        details.getChildren().addAll(nameLabel, sizeBox);
-        content.getChildren().addAll(icon, details);
+    private HBox createFolderCard(File folder, boolean isRegular, long knownSize) {
+        Long lastKnownSize = knownSize >= 0 ? null : folderManager.getLastKnownSize(folder);
+        HBox card = createCard(folder.getName(), FOLDER_ICON,
+                knownSize >= 0 ? formatFileSize(knownSize)
+                        : lastKnownSize != null ? formatFileSize(lastKnownSize) : "Calculating...", "card-size");
+        card.getStyleClass().add("folder-card");
+        if (!isRegular) {
+            card.getStyleClass().add("irregular");
+        }
+        card.setUserData(folder);
+        Label sizeLabel = (Label) ((VBox) card.getChildren().get(1)).getChildren().get(1);
 
         if (isRegular && navigationStack.isEmpty()) {
             Button deleteButton = new Button(DELETE_ICON);
-            deleteButton.setStyle("-fx-background-color: " + DELETE_BUTTON_COLOR + "; " +
-                    "-fx-text-fill: white; " +
-                    "-fx-font-size: 12px; " +
-                    "-fx-background-radius: 3; " +
-                    "-fx-padding: 5 8; " +
-                    "-fx-cursor: hand;");
-            deleteButton.setOnMouseEntered(e -> deleteButton.setEffect(new Glow(0.2)));
-            deleteButton.setOnMouseExited(e -> deleteButton.setEffect(null));
+            deleteButton.getStyleClass().add("delete-button");
             deleteButton.setOnAction(e -> {
+                forwardStack.clear();
                 folderManager.removeFolder(folder);
-                showRootFolders();
             });
-
-            HBox buttonContainer = new HBox(deleteButton);
-            buttonContainer.setAlignment(Pos.CENTER_RIGHT);
-            HBox.setHgrow(buttonContainer, Priority.ALWAYS);
-
-            content.getChildren().add(buttonContainer);
+            card.getChildren().add(deleteButton);
         }
 
-        card.getChildren().addAll(bg, content);
-
-        card.setOnMouseEntered(e -> {
-            bg.setFill(Color.web(CARD_HOVER));
-            bg.setEffect(new DropShadow(5, Color.web(PRIMARY_COLOR, 0.2)));
-        });
-
-        card.setOnMouseExited(e -> {
-            bg.setFill(Color.web(CARD_BG));
-            bg.setEffect(new DropShadow(3, Color.gray(0, 0.1)));
-        });
-
+        card.setOnMouseEntered(e -> listingCache.prefetch(folder));
         card.setOnMouseClicked(e -> {
-            if (e.getClickCount() == 2) {
-                showFolderContents(folder);
+            if (e.getButton() == MouseButton.SECONDARY) {
+                showFolderMenu(folder, card, e.getScreenX(), e.getScreenY());
+            } else if (e.getClickCount() == 2) {
+                openFolder(folder);
+            } else {
+                listingCache.prefetch(folder);
             }
         });
 
-        safeFolderSizeCalculation(folder, size -> {
+        if (knownSize >= 0) {
+            return card;
+        }
+
+        safeFolderSizeCalculation(folder, card, size -> {
+            if (size >= 0) {
+                folderManager.setLastKnownSize(folder, size);
+                if (listingModel != null) {
+                    listingModel.updateSize(folder, size);
+                }
+            }
+        }, size -> {
             if (size >= 0) {
                 sizeLabel.setText(formatFileSize(size));
-                sizeBox.getChildren().remove(progressIndicator);
             } else {
-                sizeLabel.setText("Unknown");
-                sizeBox.getChildren().remove(progressIndicator);
-                Label errorIcon = new Label("⚠");
-                errorIcon.setStyle("-fx-text-fill: #e74c3c; -fx-font-size: 14;");
-                sizeBox.getChildren().add(errorIcon);
+                sizeLabel.setText("⚠ Unknown");
+                sizeLabel.getStyleClass().add("error");
             }
         });
 
@@ -653,165 +1517,42 @@ public class MainView {
     }
 
 
-    private StackPane createFileCard(File file) {
+    private HBox createFileCard(File file) {
         FileItem fileItem = new FileItem(file);
-        StackPane card = new StackPane();
-        card.setUserData(fileItem);
-        card.setPrefSize(Region.USE_COMPUTED_SIZE, 60);
-        card.setMaxWidth(Double.MAX_VALUE);
-        card.setPadding(new Insets(5));
-
-        Rectangle bg = new Rectangle();
-        bg.widthProperty().bind(card.widthProperty().subtract(10));
-        bg.setHeight(60);
-        bg.setArcHeight(10);
-        bg.setArcWidth(10);
-        bg.setFill(Color.web(CARD_BG));
-        bg.setStroke(Color.web("#ddd"));
-        bg.setStrokeWidth(0.8);
-        bg.setEffect(new InnerShadow(2, Color.gray(0, 0.05)));
-
-        HBox content = new HBox(15);
-        content.setPadding(new Insets(8, 15, 8, 15));
-        content.setAlignment(Pos.CENTER_LEFT);
-        content.setMaxWidth(Double.MAX_VALUE);
-
-        String fileIcon = getFileIcon(file);
-        Label icon = new Label(fileIcon);
-        icon.setStyle("-fx-font-size: 20;");
-
-        VBox details = new VBox(3);
-        details.setAlignment(Pos.CENTER_LEFT);
-
-        Label nameLabel = new Label(file.getName());
-        nameLabel.setStyle("-fx-font-weight: bold; -fx-font-size: 13px;");
-
         String fileSize = formatFileSize(file.length());
         String fileType = getFileExtension(file).toUpperCase();
 
-        Label infoLabel = new Label(fileType + " • " + fileSize);
-        infoLabel.setStyle("-fx-font-size: 12px; -fx-text-fill: " + PRIMARY_COLOR + ";");
-
-        details.getChildren().addAll(nameLabel, infoLabel);
-        content.getChildren().addAll(icon, details);
-        card.getChildren().addAll(bg, content);
-
-        card.setOnMouseEntered(e -> {
-            bg.setFill(Color.web(CARD_HOVER));
-            bg.setEffect(new DropShadow(5, Color.gray(0, 0.1)));
-        });
-
-        card.setOnMouseExited(e -> {
-            bg.setFill(Color.web(CARD_BG));
-            bg.setEffect(new InnerShadow(2, Color.gray(0, 0.05)));
-        });
-
-        card.setOnMousePressed(e -> {
-            bg.setFill(Color.web("#e0e0e0"));
-            bg.setEffect(new InnerShadow(3, Color.gray(0, 0.1)));
-        });
-
-        card.setOnMouseReleased(e -> {
-            bg.setFill(Color.web(CARD_HOVER));
-            bg.setEffect(new DropShadow(5, Color.gray(0, 0.1)));
-        });
+        HBox card = createCard(file.getName(), getFileIcon(file), fileType + " • " + fileSize, "card-info");
+        card.getStyleClass().add("file-card");
+        card.setUserData(fileItem);
 
-        final int[] clickCount = {0};
         card.setOnMouseClicked(e -> {
-            clickCount[0]++;
-            if (clickCount[0] == 2) {
-                clickCount[0] = 0;
-                openFile(file);
-            } else {
-                new java.util.Timer().schedule(
-                        new java.util.TimerTask() {
-                            @Override
-                            public void run() {
-                                clickCount[0] = 0;
-                            }
-                        },
-                        300
-                );
-            }
-        });
-
-        return card;
-    }
-
-    private void safeFolderSizeCalculation(File folder, Consumer<Long> onComplete) {
-        executor.submit(() -> {
-            long size = calculateFolderSize(folder);
-            Platform.runLater(() -> {
-                if (size >= 0) {
-                    onComplete.accept(size);
-                } else {
-                    onComplete.accept(-1L);  // بدل folder.length()*2
-                }
-            });
-        });
-    }
-
-    private long calculateFolderSize(File folder) {
-        if (folder == null || !folder.exists()) {
-            return 0;
-        }
-
-        if (folder.length() >= 1_000_000_000L) {
-            return calculateLargeFolderSize(folder);
-        }
-
-        long length = 0;
-        File[] files = folder.listFiles();
-        if (files != null) {
-            for (File file : files) {
-                if (file.isFile()) {
-                    length += file.length();
+            if (e.getClickCount() == 2) {
+                if (ArchiveIndex.isArchive(file.getName())) {
+                    openArchive(file);
                 } else {
-                    length += calculateFolderSize(file);
+                    openFile(file);
                 }
             }
-        }
-        return length;
-    }
-
-    private long calculateLargeFolderSize(File folder) {
-        AtomicLong size = new AtomicLong(0);
-        Thread calculationThread = new Thread(() -> {
-            try {
-                size.set(Files.walk(folder.toPath())
-                        .parallel()
-                        .filter(p -> p.toFile().isFile())
-                        .mapToLong(p -> p.toFile().length())
-                        .sum());
-            } catch (IOException e) {
-                size.set(-1);
-            }
         });
 
-        calculationThread.start();
-        try {
-            calculationThread.join(SIZE_CALCULATION_TIMEOUT);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
+        return card;
+    }
 
-        return size.get() > 0 ? size.get() : folder.length() * 3;
+    // onResult runs on the FX thread as soon as the size is known, so the listing order and
+    // the remembered size never wait; only the label text goes through the coalescer,
+    // which holds it back while the card is off screen.
+    private void safeFolderSizeCalculation(File folder, javafx.scene.Node card,
+                                           Consumer<Long> onResult, Consumer<Long> showResult) {
+        services.runAfterFirstFrame(() -> sizeEngine.sizeOf(folder).thenAccept(size -> {
+            long result = size >= 0 ? size : -1;
+            Platform.runLater(() -> onResult.accept(result));
+            uiUpdates.post(card, () -> showResult.accept(result));
+        }));
     }
 
     private String getFileIcon(File file) {
-        String name = file.getName().toLowerCase();
-        if (name.endsWith(".jpg") || name.endsWith(".png") || name.endsWith(".gif")) {
-            return IMAGE_ICON;
-        } else if (name.endsWith(".mp4") || name.endsWith(".avi") || name.endsWith(".mov")) {
-            return VIDEO_ICON;
-        } else if (name.endsWith(".mp3") || name.endsWith(".wav")) {
-            return AUDIO_ICON;
-        } else if (name.endsWith(".pdf")) {
-            return PDF_ICON;
-        } else if (name.endsWith(".doc") || name.endsWith(".docx") || name.endsWith(".txt")) {
-            return DOC_ICON;
-        }
-        return DEFAULT_FILE_ICON;
+        return FileCategory.of(FileCategory.extensionOf(file.getName())).getIcon();
     }
 
     private String getFileExtension(File file) {
@@ -837,7 +1578,7 @@ public class MainView {
 
     private void goBack() {
         if (!navigationStack.isEmpty()) {
-            navigationStack.pop();
+            forwardStack.push(navigationStack.pop());
             if (navigationStack.isEmpty()) {
                 showRootFolders();
             } else {
@@ -846,6 +1587,139 @@ public class MainView {
         }
     }
 
+    private void goForward() {
+        if (!forwardStack.isEmpty()) {
+            showFolderContents(forwardStack.pop());
+        }
+    }
+
+    private void showFolderMenu(File folder, HBox card, double screenX, double screenY) {
+        MenuItem breakdownItem = new MenuItem("Type breakdown");
+        breakdownItem.setOnAction(e -> showTypeBreakdown(folder));
+        MenuItem sha256Item = new MenuItem("Verify checksums (SHA-256)");
+        sha256Item.setOnAction(e -> verifyChecksums(folder, card, ChecksumService.Algorithm.SHA256, false));
+        MenuItem crcItem = new MenuItem("Verify checksums (CRC32C)");
+        crcItem.setOnAction(e -> verifyChecksums(folder, card, ChecksumService.Algorithm.CRC32C, false));
+        MenuItem fullItem = new MenuItem("Re-verify all files (SHA-256)");
+        fullItem.setOnAction(e -> verifyChecksums(folder, card, ChecksumService.Algorithm.SHA256, true));
+
+        new ContextMenu(breakdownItem, new SeparatorMenuItem(), sha256Item, crcItem, fullItem).show(card, screenX, screenY);
+    }
+
+    private void verifyChecksums(File folder, HBox card, ChecksumService.Algorithm algorithm, boolean full) {
+        // A label of its own, so progress never replaces a size update queued for the card.
+        Label progressLabel = new Label("Verifying...");
+        progressLabel.getStyleClass().add("card-info");
+        VBox details = (VBox) card.getChildren().get(1);
+        details.getChildren().add(progressLabel);
+        services.getChecksumService().verify(folder, algorithm, full, progress -> uiUpdates.post(progressLabel, () ->
+                progressLabel.setText(String.format("Verifying %,d / %,d files • %.1f MB/s",
+                        progress.getFilesDone(), progress.getFilesFound(), progress.getMegabytesPerSecond()))))
+                .whenComplete((report, error) -> {
+                    // Through the coalescer too, so it replaces any progress still queued for the label.
+                    uiUpdates.post(progressLabel, () -> details.getChildren().remove(progressLabel));
+                    Platform.runLater(() -> {
+                        if (error != null) {
+                            showAlert("Error", "Could not verify " + folder.getName() + ": " + error.getMessage());
+                        } else if (report != null) {
+                            showChecksumReport(folder, algorithm, report);
+                        }
+                    });
+                });
+    }
+
+    private void showChecksumReport(File folder, ChecksumService.Algorithm algorithm, ChecksumService.Report report) {
+        StringBuilder text = new StringBuilder();
+        text.append(algorithm.getLabel()).append(": ").append(report.getHashed()).append(" files hashed, ")
+                .append(report.getSkipped()).append(" unchanged and skipped\n")
+                .append(formatFileSize(report.getBytesHashed())).append(" in ")
+                .append(String.format("%.1f s • %.1f MB/s", report.getElapsedMillis() / 1000.0, report.getMegabytesPerSecond()))
+                .append("\n\n")
+                .append("New: ").append(report.getAdded()).append('\n')
+                .append("Modified: ").append(report.getModified()).append('\n')
+                .append("Missing: ").append(report.getMissing()).append('\n')
+                .append("Content changed without a new size or date: ").append(report.getCorrupted()).append('\n')
+                .append("Unreadable: ").append(report.getFailed()).append('\n');
+        if (!report.getProblems().isEmpty()) {
+            text.append('\n');
+            report.getProblems().forEach(problem -> text.append(problem).append('\n'));
+        }
+        text.append("\nManifest: ").append(report.getManifest());
+        showInfo(folder.getName(), text.toString());
+    }
+
+    private void showTypeBreakdown(File folder) {
+        SizeResult result = sizeEngine.getResult(folder);
+        if (result != null) {
+            showTypeBreakdown(folder, result);
+            return;
+        }
+
+        // No result, or it expired: measure again (or join the running walk) and show it when done.
+        sizeEngine.sizeOf(folder).thenAccept(size -> Platform.runLater(() -> {
+            SizeResult measured = sizeEngine.getResult(folder);
+            if (measured != null) {
+                showTypeBreakdown(folder, measured);
+            } else {
+                showAlert("Error", "Could not measure " + folder.getName() + ".");
+            }
+        }));
+    }
+
+    private void showTypeBreakdown(File folder, SizeResult result) {
+        TypeStats stats = result.getTypeStats();
+        StringBuilder text = new StringBuilder();
+        text.append(result.getFileCount()).append(" files • ").append(formatFileSize(result.getApparentSize()))
+                .append(" (").append(formatFileSize(result.getAllocatedSize())).append(" on disk)\n");
+        if (result.getHardlinksSkipped() > 0) {
+            text.append("Hardlinks counted once: ").append(result.getHardlinksSkipped()).append('\n');
+        }
+        if (result.getSymlinksSkipped() > 0) {
+            text.append("Symlinked files counted once: ").append(result.getSymlinksSkipped()).append('\n');
+        }
+        if (result.getLoopsSkipped() > 0) {
+            text.append("Directory loops skipped: ").append(result.getLoopsSkipped()).append('\n');
+        }
+        if (result.getMountsSkipped() > 0) {
+            text.append("Other file systems skipped: ").append(result.getMountsSkipped()).append('\n');
+        }
+        text.append('\n');
+        for (FileCategory category : FileCategory.values()) {
+            if (stats.getCount(category) > 0) {
+                text.append(category.getIcon()).append(' ').append(category.getLabel()).append(": ")
+                        .append(stats.getCount(category)).append(" files • ")
+                        .append(formatFileSize(stats.getBytes(category))).append('\n');
+            }
+        }
+
+        List<String> extensions = new ArrayList<>();
+        stats.getExtensions().forEach(extensions::add);
+        extensions.sort((a, b) -> Long.compare(stats.getBytes(b), stats.getBytes(a)));
+        if (!extensions.isEmpty()) {
+            text.append("\nTop extensions:\n");
+            for (String extension : extensions.subList(0, Math.min(10, extensions.size()))) {
+                text.append(extension.isEmpty() ? "(none)" : "." + extension).append(": ")
+                        .append(stats.getCount(extension)).append(" files • ")
+                        .append(formatFileSize(stats.getBytes(extension))).append('\n');
+            }
+        }
+
+        showInfo(folder.getName(), text.toString());
+    }
+
+    private void showInfo(String title, String message) {
+        Alert alert = new Alert(Alert.AlertType.INFORMATION);
+        alert.setTitle(title);
+        alert.setHeaderText(null);
+        alert.setContentText(message);
+
+        DialogPane dialogPane = alert.getDialogPane();
+        dialogPane.setStyle("-fx-background-color: " + SECONDARY_COLOR + ";");
+        dialogPane.setGraphic(null);
+
+        alert.showAndWait();
+    }
+
     private void showAlert(String title, String message) {
         Alert alert = new Alert(Alert.AlertType.ERROR);
         alert.setTitle(title);
@@ -863,10 +1737,9 @@ public class MainView {
 
     public void setDefaultSorting() {
         sortComboBox.getSelectionModel().selectFirst();
-        sortFiles("name");
     }
 
-    public Scene getScene() {
-        return scene;
+    public Parent getRoot() {
+        return mainLayout;
     }
 }
\ No newline at end of file
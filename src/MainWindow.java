@@ -0,0 +1,154 @@
+import javafx.application.Platform;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.control.SplitPane;
+import javafx.scene.control.Tab;
+import javafx.scene.control.TabPane;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.HBox;
+import javafx.stage.Stage;
+import javafx.stage.Window;
+import java.io.File;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+
+public class MainWindow {
+    private static final double SINGLE_WIDTH = 800;
+    private static final double SPLIT_WIDTH = 1280;
+    private static final URL STYLESHEET = MainWindow.class.getResource("explorer.css");
+
+    private final ExplorerServices services = new ExplorerServices();
+    private final TabPane tabPane = new TabPane();
+    private final Button splitButton = new Button("Split View");
+    private final Scene scene;
+    private final Runnable firstPulseListener = this::firstPulse;
+    private Runnable onFirstFrame = () -> { };
+
+    public MainWindow() {
+        Button newTabButton = new Button("+ New Tab");
+        newTabButton.getStyleClass().add("tab-bar-button");
+        newTabButton.setOnAction(e -> addTab());
+
+        splitButton.getStyleClass().add("tab-bar-button");
+        splitButton.setOnAction(e -> toggleSplit());
+
+        HBox tabBar = new HBox(newTabButton, splitButton);
+        tabBar.getStyleClass().add("tab-bar");
+
+        tabPane.setTabClosingPolicy(TabPane.TabClosingPolicy.ALL_TABS);
+        tabPane.getSelectionModel().selectedItemProperty().addListener((obs, oldTab, newTab) -> updateLayout());
+
+        BorderPane root = new BorderPane(tabPane);
+        root.setTop(tabBar);
+        scene = new Scene(root);
+        if (STYLESHEET != null) {
+            scene.getStylesheets().add(STYLESHEET.toExternalForm());
+        }
+
+        addTab();
+        scene.addPostLayoutPulseListener(firstPulseListener);
+    }
+
+    public void setOnFirstFrame(Runnable onFirstFrame) {
+        this.onFirstFrame = onFirstFrame;
+    }
+
+    // The first pulse lays out and renders the window; deferred scans start on the next turn.
+    private void firstPulse() {
+        scene.removePostLayoutPulseListener(firstPulseListener);
+        Platform.runLater(() -> {
+            services.firstFrameShown();
+            onFirstFrame.run();
+        });
+    }
+
+    private void addTab() {
+        Tab tab = new Tab();
+        List<MainView> views = new ArrayList<>();
+        tab.setUserData(views);
+        addView(tab, createView(tab));
+        tab.setOnClosed(e -> {
+            views.forEach(MainView::dispose);
+            if (tabPane.getTabs().isEmpty()) {
+                addTab();
+            }
+        });
+        tabPane.getTabs().add(tab);
+        tabPane.getSelectionModel().select(tab);
+    }
+
+    private MainView createView(Tab tab) {
+        MainView view = new MainView(services);
+        view.setDefaultSorting();
+        view.setOnFolderChanged(folder -> updateTitle(tab));
+        return view;
+    }
+
+    private void addView(Tab tab, MainView view) {
+        viewsOf(tab).add(view);
+        List<MainView> views = viewsOf(tab);
+        if (views.size() == 1) {
+            tab.setContent(view.getRoot());
+        } else {
+            List<Node> roots = new ArrayList<>();
+            views.forEach(v -> roots.add(v.getRoot()));
+            SplitPane splitPane = new SplitPane(roots.toArray(new Node[0]));
+            splitPane.setDividerPositions(0.5);
+            tab.setContent(splitPane);
+        }
+        updateTitle(tab);
+    }
+
+    private void toggleSplit() {
+        Tab tab = tabPane.getSelectionModel().getSelectedItem();
+        if (tab == null) return;
+
+        List<MainView> views = viewsOf(tab);
+        if (views.size() == 1) {
+            addView(tab, createView(tab));
+        } else {
+            MainView second = views.remove(1);
+            second.dispose();
+            tab.setContent(views.get(0).getRoot());
+            updateTitle(tab);
+        }
+        updateLayout();
+    }
+
+    private void updateLayout() {
+        Tab tab = tabPane.getSelectionModel().getSelectedItem();
+        boolean split = tab != null && viewsOf(tab).size() > 1;
+        splitButton.setText(split ? "Single View" : "Split View");
+
+        Window window = scene.getWindow();
+        if (window instanceof Stage) {
+            window.setWidth(split ? SPLIT_WIDTH : SINGLE_WIDTH);
+        }
+    }
+
+    private void updateTitle(Tab tab) {
+        StringBuilder title = new StringBuilder();
+        for (MainView view : viewsOf(tab)) {
+            if (title.length() > 0) title.append(" | ");
+            File folder = view.getCurrentFolder();
+            title.append(folder == null ? "Main Screen" : folder.getName());
+        }
+        tab.setText(title.toString());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<MainView> viewsOf(Tab tab) {
+        return (List<MainView>) tab.getUserData();
+    }
+
+    public Scene getScene() {
+        return scene;
+    }
+
+    public void shutdown() {
+        tabPane.getTabs().forEach(tab -> viewsOf(tab).forEach(MainView::dispose));
+        services.shutdown();
+    }
+}
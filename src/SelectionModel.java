@@ -0,0 +1,118 @@
+import java.util.BitSet;
+
+/**
+ * Selected positions of a listing, kept as a BitSet so that selecting every entry
+ * of a large folder is one range operation. It also remembers which positions are
+ * currently drawn as selected, so the view only restyles cards whose state changed.
+ */
+public class SelectionModel {
+    private final BitSet selected = new BitSet();
+    private final BitSet rendered = new BitSet();
+    private int anchor = -1;
+
+    public void select(int index) {
+        selected.clear();
+        selected.set(index);
+        anchor = index;
+    }
+
+    public void toggle(int index) {
+        selected.flip(index);
+        anchor = index;
+    }
+
+    /** Replaces the selection with the range between the anchor and index, limited to eligible positions. */
+    public void selectRange(int index, BitSet eligible) {
+        if (anchor < 0) {
+            select(index);
+            return;
+        }
+        selected.clear();
+        selected.set(Math.min(anchor, index), Math.max(anchor, index) + 1);
+        if (eligible != null) {
+            selected.and(eligible);
+        }
+    }
+
+    public void add(BitSet positions) {
+        selected.or(positions);
+    }
+
+    public void clear() {
+        selected.clear();
+        anchor = -1;
+    }
+
+    /** Forgets everything, including what is drawn; used when the listing is rebuilt. Returns true if anything was selected. */
+    public boolean reset() {
+        boolean hadSelection = !selected.isEmpty();
+        clear();
+        rendered.clear();
+        return hadSelection;
+    }
+
+    public boolean isSelected(int index) {
+        return selected.get(index);
+    }
+
+    public boolean isEmpty() {
+        return selected.isEmpty();
+    }
+
+    public int count() {
+        return selected.cardinality();
+    }
+
+    public BitSet getSelected() {
+        return (BitSet) selected.clone();
+    }
+
+    /** Returns the positions whose drawn state differs from the selection and marks them as drawn. */
+    public BitSet takeChanges() {
+        BitSet changes = (BitSet) selected.clone();
+        changes.xor(rendered);
+        rendered.clear();
+        rendered.or(selected);
+        return changes;
+    }
+
+    public void inserted(int index) {
+        shiftUp(selected, index);
+        shiftUp(rendered, index);
+        if (anchor >= index) anchor++;
+    }
+
+    public void removed(int index) {
+        shiftDown(selected, index);
+        shiftDown(rendered, index);
+        if (anchor == index) anchor = -1;
+        else if (anchor > index) anchor--;
+    }
+
+    public void moved(int from, int to) {
+        boolean wasSelected = selected.get(from);
+        boolean wasRendered = rendered.get(from);
+        int oldAnchor = anchor;
+        removed(from);
+        inserted(to);
+        selected.set(to, wasSelected);
+        rendered.set(to, wasRendered);
+        if (oldAnchor == from) anchor = to;
+    }
+
+    private static void shiftUp(BitSet bits, int index) {
+        BitSet tail = bits.get(index, Math.max(index, bits.length()));
+        bits.clear(index, Math.max(index, bits.length()));
+        for (int i = tail.nextSetBit(0); i >= 0; i = tail.nextSetBit(i + 1)) {
+            bits.set(index + 1 + i);
+        }
+    }
+
+    private static void shiftDown(BitSet bits, int index) {
+        BitSet tail = bits.get(index + 1, Math.max(index + 1, bits.length()));
+        bits.clear(index, Math.max(index, bits.length()));
+        for (int i = tail.nextSetBit(0); i >= 0; i = tail.nextSetBit(i + 1)) {
+            bits.set(index + i);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+/**
+ * Totals for one folder walk. Each walking task fills its own instance and the
+ * results are combined with merge() as the tasks join.
+ */
+public class SizeResult {
+    private final TypeStats typeStats = new TypeStats();
+    private long apparentSize;
+    private long allocatedSize;
+    private long hardlinksSkipped;
+    private long symlinksSkipped;
+    private long loopsSkipped;
+    private long mountsSkipped;
+
+    public void addFile(String extension, long size, long allocated) {
+        typeStats.add(extension, size);
+        apparentSize += size;
+        allocatedSize += allocated;
+    }
+
+    public void hardlinkSkipped() {
+        hardlinksSkipped++;
+    }
+
+    public void symlinkSkipped() {
+        symlinksSkipped++;
+    }
+
+    public void loopSkipped() {
+        loopsSkipped++;
+    }
+
+    public void mountSkipped() {
+        mountsSkipped++;
+    }
+
+    public SizeResult merge(SizeResult other) {
+        typeStats.merge(other.typeStats);
+        apparentSize += other.apparentSize;
+        allocatedSize += other.allocatedSize;
+        hardlinksSkipped += other.hardlinksSkipped;
+        symlinksSkipped += other.symlinksSkipped;
+        loopsSkipped += other.loopsSkipped;
+        mountsSkipped += other.mountsSkipped;
+        return this;
+    }
+
+    public TypeStats getTypeStats() {
+        return typeStats;
+    }
+
+    public long getApparentSize() {
+        return apparentSize;
+    }
+
+    public long getAllocatedSize() {
+        return allocatedSize;
+    }
+
+    public long getFileCount() {
+        return typeStats.getTotalFiles();
+    }
+
+    public long getHardlinksSkipped() {
+        return hardlinksSkipped;
+    }
+
+    /** Files reached a second time through a followed symlink. */
+    public long getSymlinksSkipped() {
+        return symlinksSkipped;
+    }
+
+    public long getLoopsSkipped() {
+        return loopsSkipped;
+    }
+
+    public long getMountsSkipped() {
+        return mountsSkipped;
+    }
+}
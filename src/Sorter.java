@@ -1,4 +1,5 @@
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 
 public class Sorter {
@@ -30,6 +31,20 @@ public class Sorter {
         while (j < right.size()) result.set(k++, right.get(j++));
     }
 
+    /**
+     * The listing order: folders before files, each group ordered by sortBy.
+     * Ties fall back to name and path so every item has exactly one position,
+     * which lets ListingModel binary-search it.
+     */
+    public static Comparator<FileItem> comparator(String sortBy, boolean descending) {
+        Comparator<FileItem> order = (a, b) -> compare(a, b, sortBy);
+        order = order.thenComparing(FileItem::getName).thenComparing(FileItem::getFile);
+        if (descending) {
+            order = order.reversed();
+        }
+        return Comparator.comparing((FileItem item) -> !item.isDirectory()).thenComparing(order);
+    }
+
     private static int compare(FileItem a, FileItem b, String sortBy) {
         switch (sortBy.toLowerCase()) {
             case "name":
@@ -39,8 +54,8 @@ public class Sorter {
                 return Long.compare(a.getSize(), b.getSize());
 
             case "extension":
-                boolean aIsDir = a.getFile().isDirectory();
-                boolean bIsDir = b.getFile().isDirectory();
+                boolean aIsDir = a.isDirectory();
+                boolean bIsDir = b.isDirectory();
 
                 if (aIsDir && bIsDir) {
                     return a.getName().compareToIgnoreCase(b.getName());
@@ -0,0 +1,73 @@
+import java.io.File;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Bytes and file counts per category and per extension. Not thread-safe: each
+ * walking thread fills its own instance and the results are combined with merge().
+ */
+public class TypeStats {
+    private final Map<FileCategory, long[]> byCategory = new EnumMap<>(FileCategory.class);
+    private final Map<String, long[]> byExtension = new HashMap<>();
+    private long totalBytes;
+    private long totalFiles;
+
+    public void addFile(File file) {
+        add(FileCategory.extensionOf(file.getName()), file.length());
+    }
+
+    public void add(String extension, long bytes) {
+        accumulate(byCategory.computeIfAbsent(FileCategory.of(extension), c -> new long[2]), 1, bytes);
+        accumulate(byExtension.computeIfAbsent(extension, e -> new long[2]), 1, bytes);
+        totalFiles++;
+        totalBytes += bytes;
+    }
+
+    public TypeStats merge(TypeStats other) {
+        other.byCategory.forEach((category, counts) ->
+                accumulate(byCategory.computeIfAbsent(category, c -> new long[2]), counts[0], counts[1]));
+        other.byExtension.forEach((extension, counts) ->
+                accumulate(byExtension.computeIfAbsent(extension, e -> new long[2]), counts[0], counts[1]));
+        totalFiles += other.totalFiles;
+        totalBytes += other.totalBytes;
+        return this;
+    }
+
+    private static void accumulate(long[] counts, long files, long bytes) {
+        counts[0] += files;
+        counts[1] += bytes;
+    }
+
+    public long getCount(FileCategory category) {
+        long[] counts = byCategory.get(category);
+        return counts == null ? 0 : counts[0];
+    }
+
+    public long getBytes(FileCategory category) {
+        long[] counts = byCategory.get(category);
+        return counts == null ? 0 : counts[1];
+    }
+
+    public long getCount(String extension) {
+        long[] counts = byExtension.get(extension);
+        return counts == null ? 0 : counts[0];
+    }
+
+    public long getBytes(String extension) {
+        long[] counts = byExtension.get(extension);
+        return counts == null ? 0 : counts[1];
+    }
+
+    public Iterable<String> getExtensions() {
+        return byExtension.keySet();
+    }
+
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public long getTotalFiles() {
+        return totalFiles;
+    }
+}
@@ -0,0 +1,126 @@
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import javafx.scene.Node;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+
+/**
+ * Collects UI updates posted from background threads and applies them on the FX
+ * thread once per pulse, within a fixed time budget. Only the latest update per
+ * target node is kept. Updates for nodes that left the scene are dropped; updates
+ * for nodes outside the viewport are parked until viewportChanged() is called.
+ * Parked updates are rechecked within the same budget, resuming where the last
+ * pulse stopped, so a long scroll over many parked cards stays cheap per frame.
+ */
+public class UiUpdateCoalescer {
+    private static final long FRAME_BUDGET_NANOS = 4_000_000;
+
+    private final Predicate<Node> isOnScreen;
+    private final Map<Node, Runnable> latest = new ConcurrentHashMap<>();
+    private final Queue<Node> queue = new ConcurrentLinkedQueue<>();
+    private final Map<Node, Runnable> parked = new ConcurrentHashMap<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+    private volatile boolean viewportChanged = false;
+    private Iterator<Map.Entry<Node, Runnable>> parkedScan;
+    private final AnimationTimer timer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            drain();
+        }
+    };
+
+    public UiUpdateCoalescer(Predicate<Node> isOnScreen) {
+        this.isOnScreen = isOnScreen;
+    }
+
+    public void post(Node target, Runnable update) {
+        if (latest.put(target, update) == null) {
+            queue.add(target);
+        }
+        schedule();
+    }
+
+    public void viewportChanged() {
+        if (!parked.isEmpty()) {
+            viewportChanged = true;
+            schedule();
+        }
+    }
+
+    /** Drops parked updates for nodes that have left the scene, e.g. after the listing was rebuilt. */
+    public void dropDetached() {
+        parked.keySet().removeIf(target -> target.getScene() == null);
+    }
+
+    public void stop() {
+        timer.stop();
+        latest.clear();
+        queue.clear();
+        parked.clear();
+        parkedScan = null;
+        scheduled.set(false);
+    }
+
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            Platform.runLater(timer::start);
+        }
+    }
+
+    private void drain() {
+        long started = System.nanoTime();
+        long deadline = started + FRAME_BUDGET_NANOS;
+
+        // A scan already under way finishes before a newer viewport change restarts it,
+        // so every parked entry is reached even while scrolling never stops.
+        if (parkedScan == null && viewportChanged) {
+            viewportChanged = false;
+            parkedScan = parked.entrySet().iterator();
+        }
+        if (parkedScan != null) {
+            long scanDeadline = started + FRAME_BUDGET_NANOS / 2;
+            while (parkedScan.hasNext() && System.nanoTime() < scanDeadline) {
+                Map.Entry<Node, Runnable> entry = parkedScan.next();
+                Node target = entry.getKey();
+                if (target.getScene() == null) {
+                    parkedScan.remove();
+                } else if (isOnScreen.test(target)) {
+                    parkedScan.remove();
+                    if (latest.putIfAbsent(target, entry.getValue()) == null) {
+                        queue.add(target);
+                    }
+                }
+            }
+            if (!parkedScan.hasNext()) {
+                parkedScan = null;
+            }
+        }
+
+        Node target;
+        while (System.nanoTime() < deadline && (target = queue.poll()) != null) {
+            Runnable update = latest.remove(target);
+            if (update == null || target.getScene() == null) {
+                continue;
+            }
+            if (isOnScreen.test(target)) {
+                parked.remove(target);
+                update.run();
+            } else {
+                parked.put(target, update);
+            }
+        }
+
+        if (queue.isEmpty() && !viewportChanged && parkedScan == null) {
+            timer.stop();
+            scheduled.set(false);
+            if (!queue.isEmpty() || viewportChanged) {
+                schedule();
+            }
+        }
+    }
+}
@@ -0,0 +1,45 @@
+import java.io.File;
+import java.util.List;
+
+public class ViewState {
+    private final File folder;
+    private final List<FileItem> items;
+    private final String sortBy;
+    private final boolean descending;
+    private final double scrollOffset;
+    private final long modified;
+
+    public ViewState(File folder, List<FileItem> items, String sortBy, boolean descending,
+                     double scrollOffset, long modified) {
+        this.folder = folder;
+        this.items = items;
+        this.sortBy = sortBy;
+        this.descending = descending;
+        this.scrollOffset = scrollOffset;
+        this.modified = modified;
+    }
+
+    public File getFolder() {
+        return folder;
+    }
+
+    public List<FileItem> getItems() {
+        return items;
+    }
+
+    public String getSortBy() {
+        return sortBy;
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
+
+    public double getScrollOffset() {
+        return scrollOffset;
+    }
+
+    public long getModified() {
+        return modified;
+    }
+}
@@ -0,0 +1,221 @@
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Headless scale check for the listing, sorting and sizing paths. Generates a
+ * synthetic tree in a temp directory, times each path against it and compares
+ * the results with what was generated. Exits with status 1 if a result is wrong
+ * or a budget is exceeded; scripts/scale-test.sh builds and runs it.
+ *
+ * Tree shape: explorer.scale.depth, .fanOut, .files (per folder), .wide (files in
+ * one extra flat folder), .minFileSize, .maxFileSize, .symlinks and .hardlinks
+ * (ratios), .seed, .keep (leave the tree on disk), .dir (generate there instead).
+ * Budgets: explorer.scale.budget.list, .sort, .page, .externalSort and .size in ms,
+ * and .heapMb for the peak heap. The defaults fit the default tree (100,000 files
+ * in the wide folder) with a few times headroom; 0 turns a budget off.
+ */
+public class ScaleHarness {
+    private static final Map<String, Long> DEFAULT_BUDGETS = Map.of(
+            "list", 4_000L,
+            "sort", 3_000L,
+            "page", 1_000L,
+            "externalSort", 8_000L,
+            "size", 8_000L,
+            "heapMb", 512L);
+
+    private final List<String> failures = new ArrayList<>();
+
+    public static void main(String[] args) throws Exception {
+        System.exit(new ScaleHarness().run() ? 0 : 1);
+    }
+
+    private boolean run() throws Exception {
+        SyntheticTreeGenerator generator = new SyntheticTreeGenerator()
+                .setDepth(Integer.getInteger("explorer.scale.depth", 3))
+                .setFanOut(Integer.getInteger("explorer.scale.fanOut", 8))
+                .setFilesPerFolder(Integer.getInteger("explorer.scale.files", 50))
+                .setWideFolderFiles(Integer.getInteger("explorer.scale.wide", 100_000))
+                .setFileSizes(Long.getLong("explorer.scale.minFileSize", 0L), Long.getLong("explorer.scale.maxFileSize", 1 << 20))
+                .setSymlinkRatio(doubleProperty("explorer.scale.symlinks", 0.02))
+                .setHardlinkRatio(doubleProperty("explorer.scale.hardlinks", 0.02))
+                .setSeed(Long.getLong("explorer.scale.seed", 42L));
+
+        String dir = System.getProperty("explorer.scale.dir");
+        Path root = dir != null ? Path.of(dir) : Files.createTempDirectory("explorer-scale");
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        FolderSizeEngine sizeEngine = new FolderSizeEngine(executor);
+        ListingCache listingCache = new ListingCache(16, 60_000, DirectoryPager.PAGED_THRESHOLD);
+        try {
+            long started = System.nanoTime();
+            SyntheticTreeGenerator.Result tree = generator.generate(root);
+            System.out.printf("generated %,d folders, %,d files, %,d symlinks, %,d hardlinks, %,d bytes in %,d ms at %s%n",
+                    tree.getFolders(), tree.getFiles(), tree.getSymlinks(), tree.getHardlinks(),
+                    tree.getBytes(), elapsed(started), root);
+
+            if (tree.getWideFolder() != null) {
+                checkWideFolder(tree.getWideFolder(), listingCache);
+            }
+            checkSizing(tree, sizeEngine);
+            checkHeap();
+        } finally {
+            listingCache.shutdown();
+            sizeEngine.shutdown();
+            executor.shutdownNow();
+            if (dir == null && !Boolean.getBoolean("explorer.scale.keep")) {
+                delete(root);
+            }
+        }
+
+        if (failures.isEmpty()) {
+            System.out.println("PASS");
+            return true;
+        }
+        failures.forEach(failure -> System.out.println("FAIL " + failure));
+        return false;
+    }
+
+    private void checkWideFolder(Path folder, ListingCache listingCache) throws IOException {
+        long started = System.nanoTime();
+        File[] files = listingCache.list(folder.toFile());
+        List<FileItem> items = new ArrayList<>(files.length);
+        for (File file : files) {
+            items.add(new FileItem(file));
+        }
+        checkBudget("list", elapsed(started), files.length + " entries");
+
+        for (String sortBy : new String[]{"Name", "Size", "Extension"}) {
+            List<FileItem> copy = new ArrayList<>(items);
+            started = System.nanoTime();
+            Sorter.mergeSort(copy, sortBy);
+            checkBudget("sort", elapsed(started), "by " + sortBy);
+            checkOrder(copy, primaryOrder(sortBy), "mergeSort by " + sortBy);
+        }
+
+        started = System.nanoTime();
+        ListingModel model = new ListingModel(Sorter.comparator("Size", false));
+        model.setItems(items);
+        for (int i = 0; i < Math.min(1000, items.size()); i++) {
+            FileItem item = items.get(i * (items.size() / Math.min(1000, items.size())));
+            model.updateSize(item.getFile(), item.getSize() * 2 + 1);
+        }
+        checkBudget("sort", elapsed(started), "listing model build + 1000 size updates");
+        checkOrder(model.getItems(), Sorter.comparator("Size", false), "listing model");
+
+        try (DirectoryPager pager = new DirectoryPager(folder, 2000)) {
+            started = System.nanoTime();
+            long offset = Math.max(0, files.length - 500);
+            int read = pager.page(offset, 500).size() + pager.page(0, 500).size();
+            checkBudget("page", elapsed(started), "last page then first page");
+            expect(read == 2 * Math.min(500, files.length), "pager returned " + read + " entries for two pages");
+
+            started = System.nanoTime();
+            pager.sortAll("Name", false);
+            checkBudget("externalSort", elapsed(started), pager.getKnownCount() + " entries");
+            expect(pager.getKnownCount() == files.length,
+                    "external sort kept " + pager.getKnownCount() + " of " + files.length + " entries");
+            List<FileItem> first = pager.page(0, 500);
+            checkOrder(first, Sorter.comparator("Name", false), "external sort first page");
+        }
+    }
+
+    private void checkSizing(SyntheticTreeGenerator.Result tree, FolderSizeEngine sizeEngine) {
+        long started = System.nanoTime();
+        long size = sizeEngine.calculate(tree.getRoot().toFile());
+        checkBudget("size", elapsed(started), "whole tree");
+        SizeResult result = sizeEngine.getResult(tree.getRoot().toFile());
+        if (result != null) {
+            System.out.printf("  %,d files counted, %,d hardlinks, %,d symlinked files and %,d loops skipped%n",
+                    result.getFileCount(), result.getHardlinksSkipped(), result.getSymlinksSkipped(),
+                    result.getLoopsSkipped());
+        }
+        expect(size == tree.getBytes(), "size engine reported " + size + " bytes, generated " + tree.getBytes());
+    }
+
+    private void checkHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        long peakMb = peak / (1024 * 1024);
+        System.out.printf("heap: peak %,d MB%n", peakMb);
+        long budget = budget("heapMb");
+        expect(budget <= 0 || peakMb <= budget, "heap peak " + peakMb + " MB over budget of " + budget + " MB");
+    }
+
+    private void checkOrder(List<FileItem> items, Comparator<FileItem> order, String what) {
+        for (int i = 1; i < items.size(); i++) {
+            if (order.compare(items.get(i - 1), items.get(i)) > 0) {
+                failures.add(what + " out of order at " + i);
+                return;
+            }
+        }
+    }
+
+    // mergeSort leaves ties in listing order, so only its sort key is checked.
+    private static Comparator<FileItem> primaryOrder(String sortBy) {
+        switch (sortBy) {
+            case "Size":
+                return Comparator.comparingLong(FileItem::getSize);
+            case "Extension":
+                return Comparator.comparing(FileItem::getExtension, String.CASE_INSENSITIVE_ORDER)
+                        .thenComparing(FileItem::getName, String.CASE_INSENSITIVE_ORDER);
+            default:
+                return Comparator.comparing(FileItem::getName, String.CASE_INSENSITIVE_ORDER);
+        }
+    }
+
+    private void checkBudget(String name, long millis, String detail) {
+        long budget = budget(name);
+        System.out.printf("%-13s %,8d ms  %s%n", name, millis, detail);
+        expect(budget <= 0 || millis <= budget, name + " (" + detail + ") took " + millis + " ms, budget " + budget + " ms");
+    }
+
+    private static long budget(String name) {
+        return Long.getLong("explorer.scale.budget." + name, DEFAULT_BUDGETS.get(name));
+    }
+
+    private void expect(boolean condition, String failure) {
+        if (!condition) failures.add(failure);
+    }
+
+    private static long elapsed(long started) {
+        return (System.nanoTime() - started) / 1_000_000;
+    }
+
+    private static double doubleProperty(String name, double fallback) {
+        String value = System.getProperty(name);
+        return value == null ? fallback : Double.parseDouble(value);
+    }
+
+    private static void delete(Path root) throws IOException {
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException e) throws IOException {
+                Files.delete(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+}
@@ -0,0 +1,217 @@
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Builds directory trees of a given shape for scale testing: depth and fan-out
+ * of folders, files per folder with sizes drawn log-uniformly between a minimum
+ * and maximum, one extra very wide folder, and a share of symlinks (including
+ * links back to an ancestor) and hardlinks. Files are created sparse by default,
+ * so large apparent sizes cost almost no disk space or time.
+ */
+public class SyntheticTreeGenerator {
+    private static final String[] EXTENSIONS = {"txt", "log", "jpg", "png", "mp4", "mp3", "pdf", "docx", "csv", "bin", ""};
+
+    private int depth = 3;
+    private int fanOut = 8;
+    private int filesPerFolder = 50;
+    private int wideFolderFiles = 0;
+    private long minFileSize = 0;
+    private long maxFileSize = 64 * 1024;
+    private double symlinkRatio = 0;
+    private double hardlinkRatio = 0;
+    private boolean sparse = true;
+    private long seed = 42;
+
+    public static class Result {
+        private final Path root;
+        private final Path wideFolder;
+        private long folders;
+        private long files;
+        private long bytes;
+        private long symlinks;
+        private long hardlinks;
+
+        Result(Path root, Path wideFolder) {
+            this.root = root;
+            this.wideFolder = wideFolder;
+        }
+
+        public Path getRoot() {
+            return root;
+        }
+
+        /** The extra wide folder, or null if none was requested. */
+        public Path getWideFolder() {
+            return wideFolder;
+        }
+
+        public long getFolders() {
+            return folders;
+        }
+
+        public long getFiles() {
+            return files;
+        }
+
+        /** Apparent size of all regular files, each hardlinked file counted once. */
+        public long getBytes() {
+            return bytes;
+        }
+
+        public long getSymlinks() {
+            return symlinks;
+        }
+
+        public long getHardlinks() {
+            return hardlinks;
+        }
+    }
+
+    public SyntheticTreeGenerator setDepth(int depth) {
+        this.depth = depth;
+        return this;
+    }
+
+    public SyntheticTreeGenerator setFanOut(int fanOut) {
+        this.fanOut = fanOut;
+        return this;
+    }
+
+    public SyntheticTreeGenerator setFilesPerFolder(int filesPerFolder) {
+        this.filesPerFolder = filesPerFolder;
+        return this;
+    }
+
+    public SyntheticTreeGenerator setWideFolderFiles(int wideFolderFiles) {
+        this.wideFolderFiles = wideFolderFiles;
+        return this;
+    }
+
+    public SyntheticTreeGenerator setFileSizes(long minFileSize, long maxFileSize) {
+        this.minFileSize = minFileSize;
+        this.maxFileSize = Math.max(minFileSize, maxFileSize);
+        return this;
+    }
+
+    public SyntheticTreeGenerator setSymlinkRatio(double symlinkRatio) {
+        this.symlinkRatio = symlinkRatio;
+        return this;
+    }
+
+    public SyntheticTreeGenerator setHardlinkRatio(double hardlinkRatio) {
+        this.hardlinkRatio = hardlinkRatio;
+        return this;
+    }
+
+    public SyntheticTreeGenerator setSparse(boolean sparse) {
+        this.sparse = sparse;
+        return this;
+    }
+
+    public SyntheticTreeGenerator setSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    public Result generate(Path root) throws IOException {
+        Files.createDirectories(root);
+        Random random = new Random(seed);
+        Path wideFolder = wideFolderFiles > 0 ? root.resolve("wide") : null;
+        Result result = new Result(root, wideFolder);
+
+        fill(root, root, depth, random, result);
+        if (wideFolder != null) {
+            Files.createDirectory(wideFolder);
+            result.folders++;
+            List<Path> created = new ArrayList<>();
+            for (int i = 0; i < wideFolderFiles; i++) {
+                createFile(wideFolder, i, random, result, created);
+            }
+        }
+        return result;
+    }
+
+    private void fill(Path root, Path folder, int remainingDepth, Random random, Result result) throws IOException {
+        List<Path> created = new ArrayList<>();
+        for (int i = 0; i < filesPerFolder; i++) {
+            createFile(folder, i, random, result, created);
+        }
+
+        if (remainingDepth == 0) return;
+        for (int i = 0; i < fanOut; i++) {
+            Path child = folder.resolve("dir-" + i);
+            Files.createDirectory(child);
+            result.folders++;
+            fill(root, child, remainingDepth - 1, random, result);
+        }
+        if (symlinkRatio > 0 && random.nextDouble() < symlinkRatio) {
+            // A link back to the top makes a loop for any walk that follows links.
+            createSymlink(folder.resolve("loop-to-root"), root, result);
+        }
+    }
+
+    private void createFile(Path folder, int index, Random random, Result result, List<Path> created) throws IOException {
+        String extension = EXTENSIONS[random.nextInt(EXTENSIONS.length)];
+        Path file = folder.resolve(String.format("file-%07d-%04x%s", index, random.nextInt(0x10000),
+                extension.isEmpty() ? "" : "." + extension));
+
+        double roll = random.nextDouble();
+        if (!created.isEmpty() && roll < hardlinkRatio) {
+            try {
+                Files.createLink(file, created.get(random.nextInt(created.size())));
+                result.hardlinks++;
+                return;
+            } catch (UnsupportedOperationException | IOException e) {
+                // Fall through and create a regular file instead.
+            }
+        } else if (!created.isEmpty() && roll < hardlinkRatio + symlinkRatio) {
+            if (createSymlink(file, created.get(random.nextInt(created.size())), result)) {
+                return;
+            }
+        }
+
+        long size = fileSize(random);
+        if (size == 0) {
+            Files.createFile(file);
+        } else if (sparse) {
+            try (RandomAccessFile out = new RandomAccessFile(file.toFile(), "rw")) {
+                out.setLength(size);
+            }
+        } else {
+            byte[] block = new byte[(int) Math.min(size, 1 << 16)];
+            random.nextBytes(block);
+            try (RandomAccessFile out = new RandomAccessFile(file.toFile(), "rw")) {
+                for (long written = 0; written < size; written += block.length) {
+                    out.write(block, 0, (int) Math.min(block.length, size - written));
+                }
+            }
+        }
+        created.add(file);
+        result.files++;
+        result.bytes += size;
+    }
+
+    private static boolean createSymlink(Path link, Path target, Result result) {
+        try {
+            Files.createSymbolicLink(link, target);
+            result.symlinks++;
+            return true;
+        } catch (UnsupportedOperationException | IOException | SecurityException e) {
+            return false;
+        }
+    }
+
+    // Log-uniform between min and max, so small files dominate like on real disks.
+    private long fileSize(Random random) {
+        if (maxFileSize == 0) return 0;
+        double low = Math.log(Math.max(1, minFileSize));
+        double high = Math.log(maxFileSize);
+        long size = Math.round(Math.exp(low + random.nextDouble() * (high - low)));
+        return minFileSize == 0 && random.nextInt(10) == 0 ? 0 : Math.min(maxFileSize, Math.max(minFileSize, size));
+    }
+}